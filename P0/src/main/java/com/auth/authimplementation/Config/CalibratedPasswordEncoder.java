@@ -0,0 +1,109 @@
+package com.auth.authimplementation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+//bcrypt encoder whose work factor is picked at startup from a per-hash latency budget
+//upgradeEncoding is true whenever a stored hash uses a different cost than the current one (higher or lower),
+//so DaoAuthenticationProvider rehashes it through UserDetailsPasswordService on the next successful login
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    //lowest work factor ever used, whatever the configuration or the machine speed
+    static final int MIN_STRENGTH = 10;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long hashNanos;
+
+    private CalibratedPasswordEncoder(int strength, long hashNanos) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.hashNanos = hashNanos;
+    }
+
+    //fixed strength, no calibration (raised to MIN_STRENGTH if lower)
+    public static CalibratedPasswordEncoder withStrength(int strength) {
+        int clamped = Math.max(strength, MIN_STRENGTH);
+        return new CalibratedPasswordEncoder(clamped, measure(clamped));
+    }
+
+    //highest strength in [minStrength, maxStrength] whose hash time fits targetMillis
+    //each step doubles the cost, so the search stops at the first strength over budget
+    //minStrength is a floor and is used even if it is already over budget; both bounds are raised to MIN_STRENGTH
+    public static CalibratedPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+        minStrength = Math.max(minStrength, MIN_STRENGTH);
+        maxStrength = Math.max(maxStrength, minStrength);
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int chosen = minStrength;
+        long chosenNanos = measure(minStrength);
+        for (int strength = minStrength + 1; strength <= maxStrength && chosenNanos * 2 <= targetNanos; strength++) {
+            long nanos = measure(strength);
+            if (nanos > targetNanos) {
+                break;
+            }
+            chosen = strength;
+            chosenNanos = nanos;
+        }
+        return new CalibratedPasswordEncoder(chosen, chosenNanos);
+    }
+
+    //best of two runs; the first one also pays for class loading and jit
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("password.bcrypt.strength", this, CalibratedPasswordEncoder::getStrength)
+                .description("bcrypt work factor used for new hashes")
+                .register(meterRegistry);
+        Gauge.builder("password.bcrypt.hash.time", this, e -> e.hashNanos / 1_000_000.0)
+                .description("measured time of one hash at the chosen work factor")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public int getStrength() {
+        return this.strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Integer storedStrength = strengthOf(encodedPassword);
+        return storedStrength != null && storedStrength != strength;
+    }
+
+    //bcrypt hashes look like $2a$10$<salt+hash>
+    private static Integer strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return null;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
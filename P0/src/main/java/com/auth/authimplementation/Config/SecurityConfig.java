@@ -1,5 +1,8 @@
 package com.auth.authimplementation.Config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -7,7 +10,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -15,10 +17,14 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import com.auth.authimplementation.Filter.JwtAuthFilter;
 import com.auth.authimplementation.Service.UserService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 //this will be created after completing the authentication part ie after creating JwtAuthFilter
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtAuthFilter jwtAuthFilter;
     //No need
     // private final UserService userService;
@@ -42,6 +48,8 @@ public class SecurityConfig {
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**").permitAll()
+                        //bulk import and other admin tools: users.admin.usernames only
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
 
@@ -56,9 +64,22 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    //one shared encoder (and SecureRandom) for the whole app
+    //the bcrypt work factor is calibrated at startup to fit password.bcrypt.target-millis per hash,
+    //or fixed to password.bcrypt.strength when calibration is off
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.calibrate:true}") boolean calibrate,
+                                           @Value("${password.bcrypt.strength:10}") int strength,
+                                           @Value("${password.bcrypt.target-millis:100}") long targetMillis,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:14}") int maxStrength,
+                                           MeterRegistry meterRegistry) {
+        CalibratedPasswordEncoder encoder = calibrate
+                ? CalibratedPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength)
+                : CalibratedPasswordEncoder.withStrength(strength);
+        log.info("BCrypt work factor: {}", encoder.getStrength());
+        encoder.bindMetrics(meterRegistry);
+        return encoder;
     }
     
 }
@@ -1,5 +1,7 @@
 package com.auth.authimplementation.Controller;
 
+import java.util.concurrent.CompletableFuture;
+
 // import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,9 +16,13 @@ import com.auth.authimplementation.DTO.UserResponseDTO;
 // import com.auth.authimplementation.Entity.User;
 import com.auth.authimplementation.Mapper.toResponse;
 import com.auth.authimplementation.Service.AuthService;
+import com.auth.authimplementation.Service.AuthenticatedUser;
+import com.auth.authimplementation.Service.LoginRateLimiter;
 import com.auth.authimplementation.Service.UserService;
 import com.auth.authimplementation.utils.JwtUtils;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -25,22 +31,26 @@ public class AuthController {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
 
     public AuthController( JwtUtils jwtUtil,
-                          UserService userService, PasswordEncoder passwordEncoder, AuthService authService) {
+                          UserService userService, PasswordEncoder passwordEncoder, AuthService authService,
+                          LoginRateLimiter loginRateLimiter) {
         // this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.authService = authService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
 
+    //async: the request thread is released while the password is hashed
     @PostMapping("/signup")
-    public UserResponseDTO signup(@RequestBody RegisterDTO request){
+    public CompletableFuture<UserResponseDTO> signup(@RequestBody RegisterDTO request){
         if (userService.userExists(request.getUsername())) {
             System.out.println("Username already exists: " + request.getUsername());
-            return new UserResponseDTO(null, null, "Username already exists");
+            return CompletableFuture.completedFuture(new UserResponseDTO(null, null, "Username already exists"));
         }
 
         return userService.saveUser(request,passwordEncoder);
@@ -78,9 +88,14 @@ public class AuthController {
 
 
     @PostMapping("/login")
-    public AuthResponse login(@RequestBody LoginDTO request) {
-        String validatedUsername = authService.login(request);
-        String token = jwtUtil.generateToken(validatedUsername);
+    public CompletableFuture<AuthResponse> login(@RequestBody LoginDTO request, HttpServletRequest httpRequest) {
+        //throttled attempts are rejected here with 429, before any bcrypt work is queued
+        loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.getUsername());
+        return authService.login(request).thenApply(this::issueToken);
+    }
+
+    private AuthResponse issueToken(AuthenticatedUser user) {
+        String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getAuthorities());
         return toResponse.mapTokenToAuthResponse(token);
     }
 
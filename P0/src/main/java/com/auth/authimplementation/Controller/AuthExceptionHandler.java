@@ -0,0 +1,29 @@
+package com.auth.authimplementation.Controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.auth.authimplementation.Service.HashingCapacityExceededException;
+import com.auth.authimplementation.Service.LoginRateLimitedException;
+
+@RestControllerAdvice
+public class AuthExceptionHandler {
+
+    //login/signup shed load when the hashing pool is saturated
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<String> handleHashingCapacityExceeded(HashingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(LoginRateLimitedException.class)
+    public ResponseEntity<String> handleLoginRateLimited(LoginRateLimitedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,44 @@
+package com.auth.authimplementation.Controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.auth.authimplementation.Service.UserImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+//bulk onboarding; needs a token with ROLE_ADMIN (users.admin.usernames), see SecurityConfig
+@RestController
+@RequestMapping("/admin/users")
+public class UserImportController {
+    private static final String TEXT_CSV = "text/csv";
+
+    private final UserImportService userImportService;
+    private final PasswordEncoder passwordEncoder;
+
+    public UserImportController(UserImportService userImportService, PasswordEncoder passwordEncoder) {
+        this.userImportService = userImportService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    //body and response are streamed: rows are read, saved and answered chunk by chunk
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV })
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf(TEXT_CSV));
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        BufferedReader in = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = response.getWriter();
+        userImportService.importUsers(in, csv, passwordEncoder, out);
+    }
+}
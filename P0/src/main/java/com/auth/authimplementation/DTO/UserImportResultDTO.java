@@ -0,0 +1,64 @@
+package com.auth.authimplementation.DTO;
+
+//one line of the bulk import response (NDJSON), in the same order as the input rows
+public class UserImportResultDTO {
+    private long line; // 1-based line number in the uploaded body
+    private String username;
+    private String status; // CREATED, DUPLICATE or INVALID
+    private Long id; // only set for CREATED
+    private String message;
+
+    // Constructor to set all fields
+    public UserImportResultDTO(long line, String username, String status, Long id, String message) {
+        this.line = line;
+        this.username = username;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    // Default constructor
+    public UserImportResultDTO() {}
+
+    // Setters
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // Getters
+    public long getLine() {
+        return line;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -1,16 +1,22 @@
 package com.auth.authimplementation.Filter;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 
+import com.auth.authimplementation.Service.AuthenticatedUser;
 import com.auth.authimplementation.Service.UserService;
 import com.auth.authimplementation.utils.JwtUtils;
+import com.auth.authimplementation.utils.TokenVerification;
 
 
 import jakarta.servlet.FilterChain;
@@ -22,9 +28,17 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter{
     private final JwtUtils jwtUtils;
     private final UserService userService;
-    public JwtAuthFilter(JwtUtils jwtUtils, UserService userService) {
+    private final VerifiedTokenCache verifiedTokenCache;
+    //false (default): principal is built from the verified claims, no db round trip
+    //true: every request is re-checked against the users table; verified tokens are not cached, so a deleted
+    //or changed user is rejected on the next request
+    private final boolean strictUserLookup;
+    public JwtAuthFilter(JwtUtils jwtUtils, UserService userService, VerifiedTokenCache verifiedTokenCache,
+                         @Value("${jwt.filter.strict-user-lookup:false}") boolean strictUserLookup) {
         this.jwtUtils = jwtUtils;
         this.userService = userService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.strictUserLookup = strictUserLookup;
     }
 
     @Override
@@ -33,21 +47,48 @@ public class JwtAuthFilter extends OncePerRequestFilter{
             String authHeader = request.getHeader("Authorization");
             if(authHeader!=null && authHeader.startsWith("Bearer ")){
                 String token= authHeader.substring(7);
-                if(jwtUtils.validateTokenBooleanWithClaims(token)){
-                    String username = jwtUtils.extractUserNameWithClaims(token);
-                    System.out.println("Authenticated user: " + username);
-                    UserDetails userDetails = userService.loadUserByUsername(username);
-
-                    UsernamePasswordAuthenticationToken authentication=new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                    );
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                //repeat requests with an already-verified token skip parsing and the signature check
+                //(not in strict mode: a cached entry would outlive a deleted user until the token's exp)
+                Authentication cached = strictUserLookup ? null : verifiedTokenCache.get(token);
+                if(cached!=null){
+                    SecurityContextHolder.getContext().setAuthentication(cached);
+                }else{
+                    //one parse + signature check per request
+                    TokenVerification verification = jwtUtils.verify(token);
+                    UserDetails userDetails = verification.isValid() ? loadPrincipal(verification) : null;
+                    if(userDetails!=null){
+                        String username = verification.getSubject();
+                        System.out.println("Authenticated user: " + username);
+
+                        UsernamePasswordAuthenticationToken authentication=new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                        );
+
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        if(!strictUserLookup){
+                            verifiedTokenCache.put(token, authentication, verification.getExpiresAt());
+                        }
+                    }
                 }
             }
             filterChain.doFilter(request, response);
     }
+
+    //null when strict mode finds no such user any more
+    private UserDetails loadPrincipal(TokenVerification verification) {
+        if (strictUserLookup) {
+            return userService.loadCurrentUser(verification.getSubject()).orElse(null);
+        }
+        //tokens issued before the uid claim existed still need the db lookup
+        if (verification.getUserId() == null) {
+            return userService.loadUserByUsername(verification.getSubject());
+        }
+        List<SimpleGrantedAuthority> authorities = verification.getAuthorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new AuthenticatedUser(verification.getUserId(), verification.getSubject(), "", authorities);
+    }
     
 }
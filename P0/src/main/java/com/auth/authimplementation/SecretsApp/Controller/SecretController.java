@@ -1,14 +1,32 @@
 package com.auth.authimplementation.SecretsApp.Controller;
 
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.auth.authimplementation.SecretsApp.Service.SecretService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretPageDTO;
 import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretResponseDTO;
 import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretRequestDTO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
@@ -21,14 +39,56 @@ public class SecretController {
 
     @PostMapping("/save")
     public SecretResponseDTO saveSecret(@RequestBody SecretRequestDTO requestDTO) {
-        com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets secretEntity = new com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets();
-        secretEntity.setSecret(requestDTO.getSecret());
-        return secretService.saveSecret(secretEntity);
+        return secretService.saveSecret(requestDTO);
     }
 
+    //bulk insert for migrations: json array or NDJSON body, returns the new ids in input order
+    @PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public List<Long> saveSecrets(HttpServletRequest request) throws IOException {
+        return secretService.saveSecrets(request.getInputStream());
+    }
+
+    //keyset pagination: /secrets/all?after=<nextCursor of the previous page>&limit=<page size>
+    //conditional GET: an unchanged collection answers If-None-Match with 304, without a query or json
     @GetMapping("/all")
-    public java.util.List<SecretResponseDTO> getAllSecrets() {
-        return secretService.getAllSecrets();
+    public ResponseEntity<SecretPageDTO> getAllSecrets(@RequestParam(required = false) Long after,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       WebRequest webRequest) {
+        String etag = secretService.getSecretsETag();
+        //private + no-cache: clients may keep the page but must revalidate it every time
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(etag)) {
+            //checkNotModified already set the 304 status and the ETag header
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(secretService.getSecretsPage(after, limit));
+    }
+
+    //secrets saved by the caller, same paging parameters as /all
+    @GetMapping("/mine")
+    public SecretPageDTO getMySecrets(@RequestParam(required = false) Long after,
+                                      @RequestParam(required = false) Integer limit) {
+        return secretService.getMySecretsPage(after, limit);
+    }
+
+    //full export as NDJSON, streamed straight from the database cursor
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportSecrets(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        secretService.exportSecrets(response.getWriter());
+    }
+
+    //only the owner can read or delete a secret; anyone else gets the same 404 as for an unknown id
+    @GetMapping("/{id}")
+    public ResponseEntity<SecretResponseDTO> getSecretById(@PathVariable long id) {
+        SecretResponseDTO secret = secretService.getSecretById(id);
+        return secret == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(secret);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSecret(@PathVariable long id) {
+        return secretService.deleteSecret(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
     
     
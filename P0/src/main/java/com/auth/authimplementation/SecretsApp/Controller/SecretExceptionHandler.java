@@ -0,0 +1,29 @@
+package com.auth.authimplementation.SecretsApp.Controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.auth.authimplementation.SecretsApp.Service.DuplicateSecretException;
+import com.auth.authimplementation.SecretsApp.Service.InvalidBatchException;
+import com.auth.authimplementation.SecretsApp.Service.InvalidSecretException;
+
+@RestControllerAdvice
+public class SecretExceptionHandler {
+
+    @ExceptionHandler(DuplicateSecretException.class)
+    public ResponseEntity<String> handleDuplicateSecret(DuplicateSecretException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<String> handleInvalidBatch(InvalidBatchException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidSecretException.class)
+    public ResponseEntity<String> handleInvalidSecret(InvalidSecretException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -1,12 +1,27 @@
 package com.auth.authimplementation.SecretsApp.SecretMapper;
 
+import java.nio.charset.StandardCharsets;
+
+import com.auth.authimplementation.SecretsApp.Service.InvalidSecretException;
+import com.auth.authimplementation.SecretsApp.Service.SecretCipher;
 import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretRequestDTO;
 import com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets;
 
 public class toEntity {//SecretRequestDTO to Secrets Entity
-    public static Secrets toEntityViaRequest(SecretRequestDTO dto) {
+    //longest value (utf-8 bytes) whose ciphertext still fits secret_ciphertext
+    public static final int MAX_SECRET_BYTES = Secrets.CIPHERTEXT_LENGTH - SecretCipher.OVERHEAD_BYTES;
+
+    public static Secrets toEntityViaRequest(SecretRequestDTO dto, SecretCipher secretCipher) {
+        if (dto.getSecret() == null) {
+            throw new InvalidSecretException();
+        }
+        //rejected here with a 400, instead of failing the insert
+        if (dto.getSecret().getBytes(StandardCharsets.UTF_8).length > MAX_SECRET_BYTES) {
+            throw new InvalidSecretException("Secret is longer than " + MAX_SECRET_BYTES + " bytes (UTF-8)");
+        }
         Secrets entity = new Secrets();
-        entity.setSecret(dto.getSecret());
+        entity.setSecretCiphertext(secretCipher.encrypt(dto.getSecret()));
+        entity.setSecretDigest(secretCipher.digest(dto.getSecret()));
         return entity;
     }
     
@@ -1,12 +1,14 @@
 package com.auth.authimplementation.SecretsApp.SecretMapper;
 
+import com.auth.authimplementation.SecretsApp.Service.SecretCipher;
 import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretResponseDTO;
 
 public class toResponse {
-    public static SecretResponseDTO toResponseViaEntity(com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets entity) {
+    public static SecretResponseDTO toResponseViaEntity(com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets entity,
+                                                        SecretCipher secretCipher) {
         SecretResponseDTO dto = new SecretResponseDTO();
         dto.setId(entity.getId());
-        dto.setSecret(entity.getSecret());
+        dto.setSecret(secretCipher.decrypt(entity.getSecretCiphertext()));
         return dto;
     }    
 }
@@ -0,0 +1,11 @@
+package com.auth.authimplementation.SecretsApp.SecretRepo;
+
+//projection for by-id reads: the value plus its owner's id, so the owner check needs no users row
+public interface OwnedSecret {
+    long getId();
+
+    byte[] getSecretCiphertext();
+
+    //null for secrets saved before ownership existed
+    Long getOwnerId();
+}
@@ -0,0 +1,13 @@
+package com.auth.authimplementation.SecretsApp.SecretRepo;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.auth.authimplementation.SecretsApp.SecretsEntity.SecretDataKey;
+
+@Repository
+public interface SecretDataKeyRepo extends JpaRepository<SecretDataKey, Long> {
+    Optional<SecretDataKey> findFirstByOrderByIdDesc();
+}
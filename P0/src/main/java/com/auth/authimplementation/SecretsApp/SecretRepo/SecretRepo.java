@@ -1,13 +1,50 @@
 package com.auth.authimplementation.SecretsApp.SecretRepo;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface SecretRepo extends JpaRepository<com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets, Long> {
-    Optional<Secrets> findBySecret(String secret);
+    //index lookup on (owner_id, secret_digest) instead of comparing the full secret column
+    @Query("select s from Secrets s where s.owner.id = :ownerId and s.secretDigest = :secretDigest")
+    Optional<Secrets> findOwnedByDigest(@Param("ownerId") long ownerId, @Param("secretDigest") byte[] secretDigest);
+
+    //keyset page: walks the primary key index from afterId, cost doesn't grow with the page number
+    List<Secrets> findByIdGreaterThanOrderByIdAsc(long afterId, Limit limit);
+
+    //keyset page of one owner's secrets, read through ix_secrets_owner_id
+    @Query("select s.id as id, s.secretCiphertext as secretCiphertext from Secrets s"
+            + " where s.owner.id = :ownerId and s.id > :afterId order by s.id")
+    List<SecretSummary> findOwnedAfter(@Param("ownerId") long ownerId, @Param("afterId") long afterId, Limit limit);
+
+    //one secret with its owner id (left join: ownerless secrets are still found, with a null owner)
+    @Query("select s.id as id, s.secretCiphertext as secretCiphertext, o.id as ownerId from Secrets s"
+            + " left join s.owner o where s.id = :id")
+    Optional<OwnedSecret> findOwnedSecretById(@Param("id") long id);
+
+    //deletes the secret only if ownerId owns it; returns the number of rows deleted (0 or 1)
+    @Modifying
+    @Transactional
+    @Query("delete from Secrets s where s.id = :id and s.owner.id = :ownerId")
+    int deleteOwned(@Param("id") long id, @Param("ownerId") long ownerId);
+
+    //whole table as a cursor-backed stream (rows fetched 500 at a time); must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select s from Secrets s order by s.id")
+    Stream<Secrets> streamAllOrderById();
 }
@@ -0,0 +1,8 @@
+package com.auth.authimplementation.SecretsApp.SecretRepo;
+
+//projection for owner listings: only the columns the response needs, no entity or owner loading
+public interface SecretSummary {
+    long getId();
+
+    byte[] getSecretCiphertext();
+}
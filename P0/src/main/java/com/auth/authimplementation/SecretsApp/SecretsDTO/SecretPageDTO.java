@@ -0,0 +1,29 @@
+package com.auth.authimplementation.SecretsApp.SecretsDTO;
+
+import java.util.List;
+
+//one keyset page of /secrets/all; pass nextCursor as ?after= to get the next page (null = last page)
+public class SecretPageDTO {
+    private List<SecretResponseDTO> items;
+    private Long nextCursor;
+
+    public SecretPageDTO(List<SecretResponseDTO> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public SecretPageDTO() {}
+
+    public List<SecretResponseDTO> getItems() {
+        return this.items;
+    }
+    public void setItems(List<SecretResponseDTO> items) {
+        this.items = items;
+    }
+    public Long getNextCursor() {
+        return this.nextCursor;
+    }
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
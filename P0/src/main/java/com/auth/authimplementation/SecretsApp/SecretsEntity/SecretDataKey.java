@@ -0,0 +1,43 @@
+package com.auth.authimplementation.SecretsApp.SecretsEntity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//a data key used to encrypt secrets, stored only wrapped (AES-GCM encrypted) with the master key
+@Entity
+@Table(name = "secret_data_keys")
+public class SecretDataKey {
+    @Id
+    @GeneratedValue
+    private long id;
+    //iv + encrypted 256-bit key + gcm tag
+    @Column(name = "wrapped_key", length = 64, nullable = false)
+    private byte[] wrappedKey;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Getters and Setters
+    public long getId() {
+        return this.id;
+    }
+    public void setId(long id) {
+        this.id = id;
+    }
+    public byte[] getWrappedKey() {
+        return this.wrappedKey;
+    }
+    public void setWrappedKey(byte[] wrappedKey) {
+        this.wrappedKey = wrappedKey;
+    }
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
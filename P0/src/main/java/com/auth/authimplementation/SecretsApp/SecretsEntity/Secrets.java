@@ -1,15 +1,45 @@
 package com.auth.authimplementation.SecretsApp.SecretsEntity;
 
+import com.auth.authimplementation.Entity.User;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
+//the value is only stored encrypted (see SecretCipher); mappers encrypt/decrypt it
 @Entity
+@Table(name = "secrets", indexes = {
+        //values are unique per owner only; a global index would tell one user what another has stored
+        @Index(name = "ux_secrets_owner_digest", columnList = "owner_id, secret_digest", unique = true),
+        //(owner_id, id) serves /secrets/mine: equality on owner, then the keyset range on id
+        @Index(name = "ix_secrets_owner_id", columnList = "owner_id, id")
+})
 public class Secrets {
+    public static final int CIPHERTEXT_LENGTH = 2048;
+
     @Id
-    @GeneratedValue
+    //pooled optimizer: one sequence call covers 50 inserts (same secrets_seq/increment the default mapping created)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "secrets_seq")
+    @SequenceGenerator(name = "secrets_seq", sequenceName = "secrets_seq", allocationSize = 50)
     private long id;
-    private String secret;
+    //aes-gcm envelope: data key id + iv + ciphertext + tag
+    @Column(name = "secret_ciphertext", length = CIPHERTEXT_LENGTH, nullable = false)
+    private byte[] secretCiphertext;
+    //keyed hmac-sha256 of the value (32 bytes, whatever the secret length); unique per owner, used by value lookups
+    @Column(name = "secret_digest", length = 32, nullable = false)
+    private byte[] secretDigest;
+    //user who saved the secret; null for secrets saved before ownership existed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id")
+    private User owner;
 
     // Getters and Setters
     public long getId() {
@@ -18,11 +48,23 @@ public class Secrets {
     public void setId(long id) {
         this.id = id;
     }
-    public String getSecret() {
-        return this.secret;
+    public byte[] getSecretCiphertext() {
+        return this.secretCiphertext;
+    }
+    public void setSecretCiphertext(byte[] secretCiphertext) {
+        this.secretCiphertext = secretCiphertext;
+    }
+    public byte[] getSecretDigest() {
+        return this.secretDigest;
+    }
+    public void setSecretDigest(byte[] secretDigest) {
+        this.secretDigest = secretDigest;
+    }
+    public User getOwner() {
+        return this.owner;
     }
-    public void setSecret(String secret) {
-        this.secret = secret;
+    public void setOwner(User owner) {
+        this.owner = owner;
     }
     
 }
@@ -0,0 +1,8 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+//thrown when the caller already has a secret with the same value (unique (owner, digest) index)
+public class DuplicateSecretException extends RuntimeException {
+    public DuplicateSecretException() {
+        super("Secret already exists");
+    }
+}
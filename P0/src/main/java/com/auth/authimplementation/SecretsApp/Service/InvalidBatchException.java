@@ -0,0 +1,8 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+//thrown when a /secrets/batch body can't be read; the message points at the offending element
+public class InvalidBatchException extends RuntimeException {
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
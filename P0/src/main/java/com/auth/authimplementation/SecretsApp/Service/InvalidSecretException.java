@@ -0,0 +1,12 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+//thrown when a secret request has no value or one too long to store
+public class InvalidSecretException extends RuntimeException {
+    public InvalidSecretException() {
+        super("Secret is required");
+    }
+
+    public InvalidSecretException(String message) {
+        super(message);
+    }
+}
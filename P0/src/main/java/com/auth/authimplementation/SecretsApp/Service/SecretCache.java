@@ -0,0 +1,82 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretRepo;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+//read-through cache in front of SecretRepo.findOwnedSecretById
+//unknown ids are cached too (negative cache) until they expire or a save/delete of that id replaces them
+//saveSecret writes the new value through; deleteSecret invalidates
+//entries keep the owner id, so the owner check is served from the cache as well
+//entries are immutable snapshots; callers always get a fresh SecretResponseDTO
+@Component
+public class SecretCache {
+    private final SecretRepo secretRepo;
+    private final SecretCipher secretCipher;
+    private final Cache<Long, Optional<CachedSecret>> cache;
+
+    public SecretCache(SecretRepo secretRepo, SecretCipher secretCipher,
+                       @Value("${secrets.cache.max-size:10000}") long maxSize,
+                       @Value("${secrets.cache.ttl-seconds:600}") long ttlSeconds,
+                       MeterRegistry meterRegistry) {
+        this.secretRepo = secretRepo;
+        this.secretCipher = secretCipher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "secrets.by-id");
+    }
+
+    //empty when the id is unknown or ownerId doesn't own it; ownerless secrets only match a null ownerId
+    public Optional<SecretResponseDTO> findOwned(long id, Long ownerId) {
+        return cache.get(id, this::load)
+                .filter(secret -> Objects.equals(secret.ownerId, ownerId))
+                .map(CachedSecret::toResponse);
+    }
+
+    public void put(SecretResponseDTO secret, Long ownerId) {
+        cache.put(secret.getId(), Optional.of(new CachedSecret(secret.getId(), secret.getSecret(), ownerId)));
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    private Optional<CachedSecret> load(long id) {
+        return secretRepo.findOwnedSecretById(id)
+                .map(row -> new CachedSecret(row.getId(), secretCipher.decrypt(row.getSecretCiphertext()),
+                        row.getOwnerId()));
+    }
+
+    private static final class CachedSecret {
+        private final long id;
+        private final String secret;
+        private final Long ownerId;
+
+        private CachedSecret(long id, String secret, Long ownerId) {
+            this.id = id;
+            this.secret = secret;
+            this.ownerId = ownerId;
+        }
+
+        private SecretResponseDTO toResponse() {
+            SecretResponseDTO dto = new SecretResponseDTO();
+            dto.setId(id);
+            dto.setSecret(secret);
+            return dto;
+        }
+    }
+}
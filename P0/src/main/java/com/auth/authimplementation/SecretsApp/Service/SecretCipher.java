@@ -0,0 +1,224 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretDataKeyRepo;
+import com.auth.authimplementation.SecretsApp.SecretsEntity.SecretDataKey;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.jsonwebtoken.io.Decoders;
+
+//envelope encryption for secret values (AES-256-GCM)
+//  master key (config) -> wraps data keys (secret_data_keys table) -> data keys encrypt the values
+//a new data key is created every data-key-rotation-hours; old ones stay readable
+//unwrapped data keys are cached for data-key-cache-ttl-seconds, so a read is one AES-GCM decrypt and no key setup
+//Cipher/Mac instances are reused per thread (getInstance does a provider lookup, init with a new key/iv is cheap)
+//
+//stored value layout: [version 1][data key id 8][iv 12][ciphertext + 16 byte tag], the first 9 bytes are the gcm aad
+@Component
+public class SecretCipher {
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 1 + Long.BYTES;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int KEY_BYTES = 32;
+    //bytes a stored value has on top of the utf-8 plaintext: header + iv + tag
+    public static final int OVERHEAD_BYTES = HEADER_BYTES + IV_BYTES + TAG_BITS / 8;
+
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(SecretCipher::newCipher);
+
+    private final SecretKey masterKey;
+    private final ThreadLocal<Mac> digestMacs;
+    private final SecretDataKeyRepo dataKeyRepo;
+    private final TransactionTemplate newTransaction;
+    private final LoadingCache<Long, SecretKey> dataKeys;
+    private final Duration rotation;
+    private final SecureRandom random = new SecureRandom();
+    private volatile CurrentKey current;
+
+    public SecretCipher(@Value("${secrets.encryption.master-key}") String masterKey,
+                        @Value("${secrets.encryption.data-key-rotation-hours:24}") long rotationHours,
+                        @Value("${secrets.encryption.data-key-cache-ttl-seconds:3600}") long cacheTtlSeconds,
+                        SecretDataKeyRepo dataKeyRepo,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        byte[] masterKeyBytes = Decoders.BASE64.decode(masterKey);
+        if (masterKeyBytes.length != KEY_BYTES) {
+            throw new IllegalArgumentException("secrets.encryption.master-key must be 32 bytes (base64)");
+        }
+        this.masterKey = new SecretKeySpec(masterKeyBytes, "AES");
+        //lookup digests are an hmac keyed from the master key, so equal values can't be found by hashing guesses
+        SecretKey digestKey = new SecretKeySpec(hmac(masterKeyBytes, "secret-digest"), "HmacSHA256");
+        this.digestMacs = ThreadLocal.withInitial(() -> newMac(digestKey));
+        this.dataKeyRepo = dataKeyRepo;
+        //a new data key must be committed even if the transaction that first uses it rolls back
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dataKeys = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterAccess(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build(this::loadDataKey);
+        CaffeineCacheMetrics.monitor(meterRegistry, dataKeys, "secrets.data-keys");
+        this.rotation = Duration.ofHours(rotationHours);
+    }
+
+    public byte[] encrypt(String plaintext) {
+        CurrentKey key = currentKey();
+        byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + IV_BYTES + input.length + TAG_BITS / 8);
+        out.put(VERSION).putLong(key.id);
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        out.put(iv);
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key.key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(out.array(), 0, HEADER_BYTES);
+            cipher.doFinal(ByteBuffer.wrap(input), out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Secret encryption failed", e);
+        }
+        return out.array();
+    }
+
+    public String decrypt(byte[] stored) {
+        ByteBuffer in = ByteBuffer.wrap(stored);
+        if (in.get() != VERSION) {
+            throw new IllegalStateException("Unknown secret format");
+        }
+        SecretKey key = dataKeys.get(in.getLong());
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, stored, HEADER_BYTES, IV_BYTES));
+            cipher.updateAAD(stored, 0, HEADER_BYTES);
+            int offset = HEADER_BYTES + IV_BYTES;
+            return new String(cipher.doFinal(stored, offset, stored.length - offset), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Secret decryption failed", e);
+        }
+    }
+
+    //value for the unique (owner_id, secret_digest) index
+    public byte[] digest(String plaintext) {
+        return digestMacs.get().doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CurrentKey currentKey() {
+        CurrentKey key = current;
+        if (key != null && !key.isOlderThan(rotation)) {
+            return key;
+        }
+        synchronized (this) {
+            if (current == null || current.isOlderThan(rotation)) {
+                current = newTransaction.execute(status -> latestOrNewDataKey());
+            }
+            return current;
+        }
+    }
+
+    //after a restart the latest data key is reused until it is due for rotation
+    private CurrentKey latestOrNewDataKey() {
+        SecretDataKey latest = dataKeyRepo.findFirstByOrderByIdDesc().orElse(null);
+        if (latest != null && latest.getCreatedAt().plus(rotation).isAfter(Instant.now())) {
+            return new CurrentKey(latest.getId(), unwrap(latest.getWrappedKey()), latest.getCreatedAt());
+        }
+        byte[] keyBytes = new byte[KEY_BYTES];
+        random.nextBytes(keyBytes);
+        SecretDataKey dataKey = new SecretDataKey();
+        dataKey.setWrappedKey(wrap(keyBytes));
+        dataKey.setCreatedAt(Instant.now());
+        dataKey = dataKeyRepo.save(dataKey);
+        SecretKey key = new SecretKeySpec(keyBytes, "AES");
+        dataKeys.put(dataKey.getId(), key);
+        return new CurrentKey(dataKey.getId(), key, dataKey.getCreatedAt());
+    }
+
+    private SecretKey loadDataKey(long id) {
+        SecretDataKey dataKey = dataKeyRepo.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Unknown secret data key " + id));
+        return unwrap(dataKey.getWrappedKey());
+    }
+
+    private byte[] wrap(byte[] keyBytes) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(keyBytes);
+            return ByteBuffer.allocate(IV_BYTES + encrypted.length).put(iv).put(encrypted).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Data key wrapping failed", e);
+        }
+    }
+
+    private SecretKey unwrap(byte[] wrappedKey) {
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, wrappedKey, 0, IV_BYTES));
+            return new SecretKeySpec(cipher.doFinal(wrappedKey, IV_BYTES, wrappedKey.length - IV_BYTES), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Data key unwrapping failed (wrong master key?)", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String label) {
+        return newMac(new SecretKeySpec(key, "HmacSHA256")).doFinal(label.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            //every JRE ships AES/GCM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CurrentKey {
+        private final long id;
+        private final SecretKey key;
+        private final Instant createdAt;
+
+        private CurrentKey(long id, SecretKey key, Instant createdAt) {
+            this.id = id;
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isOlderThan(Duration age) {
+            return createdAt.plus(age).isBefore(Instant.now());
+        }
+    }
+}
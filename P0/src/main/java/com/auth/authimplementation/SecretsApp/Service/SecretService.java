@@ -1,44 +1,301 @@
 package com.auth.authimplementation.SecretsApp.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.Service.AuthenticatedUser;
+import com.auth.authimplementation.SecretsApp.SecretMapper.toEntity;
 import com.auth.authimplementation.SecretsApp.SecretMapper.toResponse;
 import com.auth.authimplementation.SecretsApp.SecretRepo.SecretRepo;
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretSummary;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretPageDTO;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretRequestDTO;
 import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretResponseDTO;
 import com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets;
 
+import jakarta.persistence.EntityManager;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.TokenStreamLocation;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+
 @Service
 public class SecretService {
+    private static final String DIGEST_INDEX = "ux_secrets_owner_digest";
+
     private final SecretRepo secretRepo;
-    public SecretService(SecretRepo secretRepo) {
+    private final SecretCache secretCache;
+    private final SecretCipher secretCipher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader batchReader;
+    private final ObjectWriter exportWriter;
+    private final int batchSize;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    //version of the secrets collection, bumped after every committed write or delete
+    //seeded from the clock so a restarted instance never hands out an etag of the previous one
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public SecretService(SecretRepo secretRepo, SecretCache secretCache, SecretCipher secretCipher,
+                         EntityManager entityManager,
+                         TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                         @Value("${secrets.page.default-size:50}") int defaultPageSize,
+                         @Value("${secrets.page.max-size:500}") int maxPageSize,
+                         @Value("${secrets.batch.jdbc-batch-size:50}") int batchSize) {
         this.secretRepo = secretRepo;
+        this.secretCache = secretCache;
+        this.secretCipher = secretCipher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.batchReader = objectMapper.readerFor(SecretRequestDTO.class);
+        this.batchSize = batchSize;
+        //export is NDJSON, one object per line
+        this.exportWriter = objectMapper.writerFor(SecretResponseDTO.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
     
+    //the caller's secret with this value, null if they have none (other users' secrets are never matched)
+    //looks up by the (owner, digest) index; the in-memory equals guards against a digest collision
     public SecretResponseDTO getSecretByValue(String secret) {
-        return secretRepo.findBySecret(secret)
-                .map(entity -> com.auth.authimplementation.SecretsApp.SecretMapper.toResponse.toResponseViaEntity(entity))
+        Long ownerId = currentUserId();
+        if (ownerId == null) {
+            return null;
+        }
+        return secretRepo.findOwnedByDigest(ownerId, secretCipher.digest(secret))
+                .map(entity -> toResponse.toResponseViaEntity(entity, secretCipher))
+                .filter(dto -> secret.equals(dto.getSecret()))
                 .orElse(null);
     }
 
+    //served from secretCache; the database is only hit on a cache miss
+    //null (404) both for unknown ids and for secrets of other users, so ids of foreign secrets don't leak
     public SecretResponseDTO getSecretById(long id) {
-        return secretRepo.findById(id)
-                .map(entity -> com.auth.authimplementation.SecretsApp.SecretMapper.toResponse.toResponseViaEntity(entity))
-                .orElse(null);
+        return secretCache.findOwned(id, currentUserId()).orElse(null);
+    }
+
+    //secret values are unique per owner (ux_secrets_owner_digest); saving a value the caller already has throws
+    //DuplicateSecretException, the same value saved by another user is not a duplicate
+    //a missing or too long value throws InvalidSecretException (400); other integrity errors are not duplicates
+    //the secret is owned by the authenticated user
+    public SecretResponseDTO saveSecret(SecretRequestDTO requestDTO) {
+        Secrets secret = toEntity.toEntityViaRequest(requestDTO, secretCipher);
+        Long ownerId = currentUserId();
+        secret.setOwner(ownerReference(ownerId));
+        Secrets savedEntity;
+        try {
+            savedEntity = secretRepo.saveAndFlush(secret);
+        } catch (DataIntegrityViolationException e) {
+            if (isDigestViolation(e)) {
+                throw new DuplicateSecretException();
+            }
+            throw e;
+        }
+        version.incrementAndGet();
+        SecretResponseDTO saved = new SecretResponseDTO();
+        saved.setId(savedEntity.getId());
+        saved.setSecret(requestDTO.getSecret());
+        secretCache.put(saved, ownerId);
+        return saved;
+    }
+
+    //body is a json array or NDJSON of SecretRequestDTO; both are read incrementally, one element at a time
+    //all-or-nothing: a value the caller already has rolls back the whole batch (DuplicateSecretException), and so does
+    //malformed json, an element without a secret or one too long to store (InvalidBatchException with the element index)
+    //returns the generated ids in input order
+    public List<Long> saveSecrets(InputStream body) throws IOException {
+        List<Long> ids;
+        Long ownerId = currentUserId();
+        try (MappingIterator<SecretRequestDTO> requests = batchReader.readValues(body)) {
+            ids = transactionTemplate.execute(status -> insertAll(requests, ownerId));
+        } catch (ConstraintViolationException e) {
+            if (isDigestViolation(e)) {
+                throw new DuplicateSecretException();
+            }
+            throw e;
+        } catch (JacksonException e) {
+            //the body doesn't even start like json
+            throw malformed(0, e);
+        }
+        //drop cached misses for the new ids once they are committed
+        ids.forEach(secretCache::invalidate);
+        version.incrementAndGet();
+        return ids;
+    }
+
+    //persists batchSize rows, flushes them as one jdbc batch, then clears the persistence context
+    private List<Long> insertAll(Iterator<SecretRequestDTO> requests, Long ownerId) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Long> ids = new ArrayList<>();
+        List<Secrets> pending = new ArrayList<>(batchSize);
+        for (int index = 0; ; index++) {
+            SecretRequestDTO request;
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                request = requests.next();
+            } catch (JacksonException e) {
+                throw malformed(index, e);
+            }
+            if (request == null || request.getSecret() == null) {
+                throw new InvalidBatchException("Element " + index + ": secret is required");
+            }
+            Secrets secret;
+            try {
+                secret = toEntity.toEntityViaRequest(request, secretCipher);
+            } catch (InvalidSecretException e) {
+                throw new InvalidBatchException("Element " + index + ": " + e.getMessage());
+            }
+            secret.setOwner(ownerReference(ownerId));
+            entityManager.persist(secret);
+            pending.add(secret);
+            if (pending.size() == batchSize) {
+                flushBatch(pending, ids);
+            }
+        }
+        flushBatch(pending, ids);
+        return ids;
+    }
+
+    //true only if the digest unique index fired, not a too long value or another constraint
+    static boolean isDigestViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(DIGEST_INDEX);
+            }
+        }
+        return false;
+    }
+
+    //elements are counted from 0; the location is the line (one element per line for NDJSON) and column
+    private static InvalidBatchException malformed(int index, JacksonException e) {
+        TokenStreamLocation location = e.getLocation();
+        String where = location == null ? "" : " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")";
+        return new InvalidBatchException("Element " + index + ": malformed JSON" + where);
+    }
+
+    private void flushBatch(List<Secrets> pending, List<Long> ids) {
+        entityManager.flush();
+        for (Secrets secret : pending) {
+            ids.add(secret.getId());
+        }
+        entityManager.clear();
+        pending.clear();
+    }
+
+    //deletes only the caller's own secret; false (404) for unknown ids and secrets of other users,
+    //in which case the cache entry is left alone
+    public boolean deleteSecret(long id) {
+        Long ownerId = currentUserId();
+        if (ownerId == null || secretRepo.deleteOwned(id, ownerId) == 0) {
+            return false;
+        }
+        secretCache.invalidate(id);
+        version.incrementAndGet();
+        return true;
+    }
+
+    //etag for secret listings; read it before querying, so a write that commits meanwhile
+    //makes the next poll see a new etag instead of being hidden behind the old one
+    public String getSecretsETag() {
+        return "\"" + version.get() + "\"";
+    }
+
+    //secrets with id > afterId, at most pageSize of them (capped at secrets.page.max-size)
+    //one extra row is fetched to know whether there is a next page
+    public SecretPageDTO getSecretsPage(Long afterId, Integer pageSize) {
+        int limit = pageSize == null ? defaultPageSize : Math.max(1, Math.min(pageSize, maxPageSize));
+        java.util.List<Secrets> rows = secretRepo.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId,
+                Limit.of(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        java.util.List<SecretResponseDTO> dtoList = new java.util.ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            dtoList.add(toResponse.toResponseViaEntity(rows.get(i), secretCipher));
+        }
+        Long nextCursor = hasMore ? dtoList.get(dtoList.size() - 1).getId() : null;
+        return new SecretPageDTO(dtoList, nextCursor);
+    }
+
+    //the authenticated user's secrets, same paging contract as getSecretsPage
+    //a projection over (owner_id, id): cost depends on this user's secrets only, owner rows are never loaded
+    public SecretPageDTO getMySecretsPage(Long afterId, Integer pageSize) {
+        Long ownerId = currentUserId();
+        if (ownerId == null) {
+            throw new IllegalStateException("No authenticated user");
+        }
+        int limit = pageSize == null ? defaultPageSize : Math.max(1, Math.min(pageSize, maxPageSize));
+        List<SecretSummary> rows = secretRepo.findOwnedAfter(ownerId, afterId == null ? 0L : afterId,
+                Limit.of(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<SecretResponseDTO> dtoList = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            SecretResponseDTO dto = new SecretResponseDTO();
+            dto.setId(rows.get(i).getId());
+            dto.setSecret(secretCipher.decrypt(rows.get(i).getSecretCiphertext()));
+            dtoList.add(dto);
+        }
+        Long nextCursor = hasMore ? dtoList.get(dtoList.size() - 1).getId() : null;
+        return new SecretPageDTO(dtoList, nextCursor);
+    }
+
+    //id of the user in the security context (set by JwtAuthFilter), null if there is none
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
     }
 
-    public SecretResponseDTO saveSecret(com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets secret) {
-        Secrets savedEntity = secretRepo.save(secret);
-        return toResponse.toResponseViaEntity(savedEntity);
+    //foreign key only, the users row is not loaded
+    private User ownerReference(Long ownerId) {
+        return ownerId == null ? null : entityManager.getReference(User.class, ownerId);
     }
 
-    //get all secrets without ->
-    public java.util.List<SecretResponseDTO> getAllSecrets() {
-        java.util.List<Secrets> secrets = secretRepo.findAll();
-        java.util.List<SecretResponseDTO> dtoList = new java.util.ArrayList<>();
-        for (Secrets secret : secrets) {
-            dtoList.add(toResponse.toResponseViaEntity(secret));
+    //writes every secret as NDJSON while the rows are being read
+    //each entity is detached after it is written, so memory stays flat whatever the table size
+    @Transactional(readOnly = true)
+    public void exportSecrets(Writer out) throws IOException {
+        try (Stream<Secrets> secrets = secretRepo.streamAllOrderById()) {
+            secrets.forEach(secret -> {
+                try {
+                    out.write(exportWriter.writeValueAsString(toResponse.toResponseViaEntity(secret, secretCipher)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(secret);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return dtoList;
+        out.flush();
     }
 
 
@@ -1,5 +1,7 @@
 package com.auth.authimplementation.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -10,12 +12,21 @@ import com.auth.authimplementation.Mapper.toResponse;
 @Service
 public class AuthService {
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
-    public AuthService(AuthenticationManager authenticationManager) {
+    public AuthService(AuthenticationManager authenticationManager, PasswordHashingExecutor passwordHashingExecutor) {
         this.authenticationManager = authenticationManager;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    //bcrypt verification runs on the hashing pool, not on the request thread
+    //throws HashingCapacityExceededException right away if the pool is saturated
+    public CompletableFuture<AuthenticatedUser> login(LoginDTO loginDTO) {
+        return passwordHashingExecutor.submit(() -> authenticate(loginDTO));
     }
 
-    public String login(LoginDTO loginDTO) {
+    //returns the authenticated principal (with user id) so the token can carry it as claims
+    private AuthenticatedUser authenticate(LoginDTO loginDTO) {
         String username = toResponse.toUsername(loginDTO);
         String password = toResponse.toPassword(loginDTO);
 
@@ -29,6 +40,6 @@ public class AuthService {
             throw new RuntimeException("Invalid credentials");
         }
 
-        return loginDTO.getUsername();
+        return (AuthenticatedUser) auth.getPrincipal();
     }
 }
@@ -0,0 +1,252 @@
+package com.auth.authimplementation.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.auth.authimplementation.DTO.RegisterDTO;
+import com.auth.authimplementation.DTO.UserImportResultDTO;
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.Mapper.toEntity;
+import com.auth.authimplementation.Repository.UserRepo;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+
+//bulk user import: reads NDJSON ({"username":..,"password":..} per line) or CSV (username,password per line)
+//and writes one NDJSON result per input row, in input order
+//the body is processed in chunks of users.import.chunk-size rows, so only one chunk is in memory at a time:
+//  1. one IN query finds usernames that already exist (plus dedupe inside the import itself)
+//  2. the new rows' passwords are hashed in parallel on the import hashing pool
+//  3. the chunk is inserted in one transaction (hibernate jdbc batching + pooled sequence ids)
+//  4. the chunk's results are written and flushed to the client
+//a chunk that was committed stays committed if a later chunk fails
+@Service
+public class UserImportService {
+    private static final String CSV_HEADER = "username,password";
+
+    private final UserRepo userRepo;
+    private final UserLookupCache userLookupCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+    private final ObjectWriter resultWriter;
+    private final ThreadPoolExecutor hashingPool;
+    private final int chunkSize;
+    private final MeterRegistry meterRegistry;
+
+    public UserImportService(UserRepo userRepo, UserLookupCache userLookupCache, EntityManager entityManager,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${users.import.chunk-size:500}") int chunkSize,
+                             @Value("${users.import.hashing-threads:0}") int hashingThreads,
+                             @Value("${users.import.queue-capacity:64}") int queueCapacity,
+                             MeterRegistry meterRegistry) {
+        this.userRepo = userRepo;
+        this.userLookupCache = userLookupCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.rowReader = objectMapper.readerFor(RegisterDTO.class);
+        //results are NDJSON, so never pretty-print them even if spring.jackson indent-output is on
+        this.resultWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.chunkSize = chunkSize;
+        this.meterRegistry = meterRegistry;
+        //separate from PasswordHashingExecutor so a large import can't fill the login/signup queue
+        //(that pool rejects instead of waiting); 0 = half the cores, so logins keep cpu while an import runs
+        //the queue is bounded: when it is full the importing request thread hashes the row itself
+        //(CallerRunsPolicy), which slows that import down instead of queueing more work
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("users.import.hashing.queue.depth", hashingPool, e -> e.getQueue().size())
+                .description("import hashing tasks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    public void importUsers(BufferedReader in, boolean csv, PasswordEncoder passwordEncoder, Writer out)
+            throws IOException {
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && lineNumber == 1 && line.trim().equalsIgnoreCase(CSV_HEADER)) {
+                continue;
+            }
+            chunk.add(csv ? parseCsv(lineNumber, line) : parseJson(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                writeResults(processChunk(chunk, passwordEncoder), out);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeResults(processChunk(chunk, passwordEncoder), out);
+        }
+    }
+
+    private ImportRow parseJson(long lineNumber, String line) {
+        try {
+            return ImportRow.of(lineNumber, rowReader.readValue(line));
+        } catch (JacksonException e) {
+            return ImportRow.invalid(lineNumber, null, "Malformed JSON");
+        }
+    }
+
+    //usernames can't contain a comma, so everything after the first comma is the password
+    private static ImportRow parseCsv(long lineNumber, String line) {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            return ImportRow.invalid(lineNumber, null, "Expected username,password");
+        }
+        RegisterDTO registerDTO = new RegisterDTO();
+        registerDTO.setUsername(line.substring(0, comma).trim());
+        registerDTO.setPassword(line.substring(comma + 1));
+        return ImportRow.of(lineNumber, registerDTO);
+    }
+
+    private List<UserImportResultDTO> processChunk(List<ImportRow> chunk, PasswordEncoder passwordEncoder) {
+        Set<String> usernames = new HashSet<>();
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                usernames.add(row.registerDTO.getUsername());
+            }
+        }
+        Set<String> existing = usernames.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepo.findExistingUsernames(usernames));
+
+        UserImportResultDTO[] results = new UserImportResultDTO[chunk.size()];
+        List<Integer> newRows = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRow row = chunk.get(i);
+            if (row.error != null) {
+                results[i] = result(row, "INVALID", null, row.error);
+            } else if (existing.contains(row.registerDTO.getUsername()) || !seen.add(row.registerDTO.getUsername())) {
+                results[i] = result(row, "DUPLICATE", null, "Username already exists");
+            } else {
+                newRows.add(i);
+            }
+        }
+
+        if (!newRows.isEmpty()) {
+            List<User> users = hashAll(chunk, newRows, passwordEncoder);
+            insertAll(users);
+            for (int i = 0; i < newRows.size(); i++) {
+                User user = users.get(i);
+                userLookupCache.invalidate(user.getUsername());
+                results[newRows.get(i)] = result(chunk.get(newRows.get(i)), "CREATED", user.getId(), null);
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<User> hashAll(List<ImportRow> chunk, List<Integer> newRows, PasswordEncoder passwordEncoder) {
+        List<Callable<User>> tasks = new ArrayList<>(newRows.size());
+        for (int index : newRows) {
+            RegisterDTO registerDTO = chunk.get(index).registerDTO;
+            tasks.add(() -> toEntity.mapRegisterDTOToUser(registerDTO, passwordEncoder));
+        }
+        try {
+            List<User> users = new ArrayList<>(tasks.size());
+            for (Future<User> future : hashingPool.invokeAll(tasks)) {
+                users.add(future.get());
+            }
+            return users;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    //persist + flush sends the inserts as jdbc batches (hibernate.jdbc.batch_size);
+    //clear detaches them so the persistence context doesn't grow with the import
+    private void insertAll(List<User> users) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (User user : users) {
+                entityManager.persist(user);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private UserImportResultDTO result(ImportRow row, String status, Long id, String message) {
+        meterRegistry.counter("users.import.rows", "status", status).increment();
+        String username = row.registerDTO == null ? null : row.registerDTO.getUsername();
+        return new UserImportResultDTO(row.line, username, status, id, message);
+    }
+
+    private void writeResults(List<UserImportResultDTO> results, Writer out) throws IOException {
+        for (UserImportResultDTO result : results) {
+            out.write(resultWriter.writeValueAsString(result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private static final class ImportRow {
+        private final long line;
+        private final RegisterDTO registerDTO;
+        private final String error;
+
+        private ImportRow(long line, RegisterDTO registerDTO, String error) {
+            this.line = line;
+            this.registerDTO = registerDTO;
+            this.error = error;
+        }
+
+        private static ImportRow of(long line, RegisterDTO registerDTO) {
+            if (registerDTO == null || registerDTO.getUsername() == null || registerDTO.getUsername().isBlank()) {
+                return invalid(line, registerDTO, "Username is required");
+            }
+            if (registerDTO.getPassword() == null || registerDTO.getPassword().isEmpty()) {
+                return invalid(line, registerDTO, "Password is required");
+            }
+            return new ImportRow(line, registerDTO, null);
+        }
+
+        private static ImportRow invalid(long line, RegisterDTO registerDTO, String error) {
+            return new ImportRow(line, registerDTO, error);
+        }
+    }
+}
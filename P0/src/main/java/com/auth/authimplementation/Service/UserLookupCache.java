@@ -0,0 +1,79 @@
+package com.auth.authimplementation.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.Repository.UserRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+//read-through cache in front of UserRepo.findByUsername
+//misses are cached too (negative cache), so signup's userExists check on a new name is served from memory
+//concurrent lookups of the same cold username share one query (caffeine computes each key once)
+//entries are immutable snapshots; callers always get a fresh detached User copy
+@Component
+public class UserLookupCache {
+    private final UserRepo userRepo;
+    private final Cache<String, Optional<CachedUser>> cache;
+
+    public UserLookupCache(UserRepo userRepo,
+                           @Value("${users.cache.max-size:10000}") long maxSize,
+                           @Value("${users.cache.ttl-seconds:600}") long ttlSeconds,
+                           MeterRegistry meterRegistry) {
+        this.userRepo = userRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.by-username");
+    }
+
+    public Optional<User> findByUsername(String username) {
+        return cache.get(username, this::load).map(CachedUser::toEntity);
+    }
+
+    //always queries the table and replaces the cached entry with what it found
+    //for callers that must see deletes and changes made outside this app (JwtAuthFilter strict mode)
+    public Optional<User> reload(String username) {
+        Optional<CachedUser> current = load(username);
+        cache.put(username, current);
+        return current.map(CachedUser::toEntity);
+    }
+
+    //must be called after every write of that username
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    private Optional<CachedUser> load(String username) {
+        return userRepo.findByUsername(username).map(CachedUser::new);
+    }
+
+    private static final class CachedUser {
+        private final long id;
+        private final String username;
+        private final String password;
+
+        private CachedUser(User user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.password = user.getPassword();
+        }
+
+        private User toEntity() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setPassword(password);
+            return user;
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.auth.authimplementation.Service;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 // import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -26,22 +35,39 @@ import com.auth.authimplementation.Repository.UserRepo;
 //toEntity have two method mapRegisterDTOToUser and mapLoginDTOToUser
 //toResponse have two method mapUserToUserResponse and mapTokenToAuthResponse
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private UserRepo userRepo;
+    private final UserLookupCache userLookupCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Set<String> adminUsernames;
+    private final Executor saveExecutor;
     // private final AuthenticationManager authenticationManager;
     // public UserService(UserRepo userRepo, AuthenticationManager authenticationManager){
     //     this.userRepo=userRepo;
     //     this.authenticationManager=authenticationManager;
     // }
 
-    public UserService(UserRepo userRepo){
+    public UserService(UserRepo userRepo, UserLookupCache userLookupCache, PasswordHashingExecutor passwordHashingExecutor,
+                       @Value("${users.admin.usernames:}") Set<String> adminUsernames,
+                       @Qualifier("applicationTaskExecutor") Executor saveExecutor){
         this.userRepo=userRepo;
+        this.userLookupCache=userLookupCache;
+        this.passwordHashingExecutor=passwordHashingExecutor;
+        this.adminUsernames=adminUsernames;
+        this.saveExecutor=saveExecutor;
     }
 
     //register user service
-    public UserResponseDTO saveUser(RegisterDTO registerDTO,PasswordEncoder passwordEncoder){
-        User user= toEntity.mapRegisterDTOToUser(registerDTO,passwordEncoder);
+    //password is hashed on the hashing pool; throws HashingCapacityExceededException if it is saturated
+    //the insert runs on the application task executor, so a bcrypt worker isn't held for the db round trip
+    public CompletableFuture<UserResponseDTO> saveUser(RegisterDTO registerDTO,PasswordEncoder passwordEncoder){
+        return passwordHashingExecutor.submit(() -> toEntity.mapRegisterDTOToUser(registerDTO,passwordEncoder))
+                .thenApplyAsync(this::saveNewUser, saveExecutor);
+    }
+
+    private UserResponseDTO saveNewUser(User user){
         User savedUser=userRepo.save(user);
+        userLookupCache.invalidate(savedUser.getUsername());
         // UserResponseDTO userResponse= new UserResponseDTO();
         // userResponse.setId(savedUser.getId());
         // userResponse.setUsername(savedUser.getUsername());
@@ -73,7 +99,9 @@ public class UserService implements UserDetailsService {
 // This creates a circular dependency that Spring cannot resolve.
 
     public User saveUserDirect(User user){
-        return userRepo.save(user);
+        User savedUser=userRepo.save(user);
+        userLookupCache.invalidate(savedUser.getUsername());
+        return savedUser;
     }
 
 
@@ -81,26 +109,48 @@ public class UserService implements UserDetailsService {
     //crucial method for authentication
     //how
     //1. loadUserByUsername is called by spring security authentication manager
-    //2. it fetches user from database using userRepo
+    //2. it fetches user through userLookupCache (database only on a cache miss)
     //3. if user is found, it returns UserDetails object with username, password and authorities
+    //   (ROLE_ADMIN for users.admin.usernames; it ends up in the token's authorities claim at login)
     public UserDetails loadUserByUsername(@NonNull String usernameOremail) throws UsernameNotFoundException{
-        User user=userRepo.findByUsername(usernameOremail).orElseThrow(()->new RuntimeException("User not found"));
-        
-        
-        return new org.springframework.security.core.userdetails.User(
+        User user=userLookupCache.findByUsername(usernameOremail).orElseThrow(()->new RuntimeException("User not found"));
+        return toPrincipal(user);
+    }
+
+    //JwtAuthFilter strict mode: reads the users table, not the cached entry, so a deleted or changed user
+    //is seen on the next request; empty when the user no longer exists
+    public Optional<UserDetails> loadCurrentUser(String username){
+        return userLookupCache.reload(username).map(this::toPrincipal);
+    }
+
+    private UserDetails toPrincipal(User user){
+        return new AuthenticatedUser(
+            user.getId(),
             user.getUsername(),
             user.getPassword(),
-            Collections.emptyList()
+            adminUsernames.contains(user.getUsername())
+                ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                : Collections.emptyList()
         );
     }
 
     public boolean userExists(String username){
-        return userRepo.findByUsername(username).isPresent();
+        return userLookupCache.findByUsername(username).isPresent();
     }
 
 
     public User getUserEntity(String username){
-        return userRepo.findByUsername(username).orElseThrow(()->new RuntimeException("User not found"));
+        return userLookupCache.findByUsername(username).orElseThrow(()->new RuntimeException("User not found"));
+    }
+
+    //called by DaoAuthenticationProvider after a successful login when the stored hash uses another
+    //bcrypt work factor than the current (calibrated) one; stores the rehashed password
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword){
+        User user=getUserEntity(userDetails.getUsername());
+        user.setPassword(newPassword);
+        saveUserDirect(user);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), newPassword, userDetails.getAuthorities());
     }
 
 
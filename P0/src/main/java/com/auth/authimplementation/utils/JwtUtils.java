@@ -1,33 +1,72 @@
 package com.auth.authimplementation.utils;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 
 @Component
 public class JwtUtils {
-    private final String SECRET = "hsrnjgnsongjajobgjbajbguibuirbiwbeihbtibitwibeuitwuinjfgjnjgdfgbfdt";
-    private final long EXPIRATION = 86400000; // 1 day
+    //custom claims so the filter can build the principal without a db lookup
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    //key and parser are built once; JwtParser is immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final long expiration;
+
+    public JwtUtils(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration) {
+        //the secret is base64, same as the old setSigningKey(String)/signWith(alg, String) calls
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+    }
 
     public String generateToken(String username) {
         // Implementation for generating JWT token
          return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
-                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    //token with the user id and authorities embedded as claims
+    public String generateToken(String username, Long userId, Collection<? extends GrantedAuthority> authorities) {
+        List<String> authorityNames = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(AUTHORITIES_CLAIM, authorityNames)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
 
     public String validateTokenAndGetUsername(String token) {
         // Implementation for validating JWT token and extracting username
-        return Jwts.parser()
-                .setSigningKey(SECRET)
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody()
                 .getSubject();
@@ -35,16 +74,14 @@ public class JwtUtils {
 
 
     public String extractUsername(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET)
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET)
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -58,13 +95,44 @@ public class JwtUtils {
         return claims.getSubject();
     }
     public boolean validateTokenBooleanWithClaims(String token) {
+        return verify(token).isValid();
+    }
+
+    //parses and verifies the token exactly once
+    //the parser already rejects expired tokens, so no second parse is needed for the expiry check
+    public TokenVerification verify(String token) {
+        if (token == null || token.isBlank()) {
+            return TokenVerification.failed(TokenVerification.FailureReason.EMPTY);
+        }
         try {
             Claims claims = extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+            if (claims.getExpiration() == null) {
+                return TokenVerification.failed(TokenVerification.FailureReason.MALFORMED);
+            }
+            return TokenVerification.valid(claims.getSubject(), userId(claims), authorities(claims),
+                    claims.getIssuedAt(), claims.getExpiration());
+        } catch (ExpiredJwtException e) {
+            return TokenVerification.failed(TokenVerification.FailureReason.EXPIRED);
+        } catch (SecurityException e) {
+            return TokenVerification.failed(TokenVerification.FailureReason.BAD_SIGNATURE);
+        } catch (UnsupportedJwtException e) {
+            return TokenVerification.failed(TokenVerification.FailureReason.UNSUPPORTED);
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenVerification.failed(TokenVerification.FailureReason.MALFORMED);
         }
     }
+    //null for tokens issued before the uid claim existed
+    private static Long userId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId == null ? null : userId.longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> authorities(Claims claims) {
+        List<String> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        return authorities == null ? Collections.emptyList() : authorities;
+    }
+
     public boolean isTokenExpired(String token) {
         final java.util.Date expiration = extractAllClaims(token).getExpiration();
         return expiration.before(new java.util.Date());
@@ -0,0 +1,74 @@
+package com.auth.authimplementation.utils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+//result of a single parse + signature check of a jwt
+//either valid (subject, issuedAt, expiresAt are set) or failed (failureReason is set)
+//userId is null for tokens that were issued without the uid claim
+public final class TokenVerification {
+
+    public enum FailureReason {
+        EXPIRED,
+        BAD_SIGNATURE,
+        MALFORMED,
+        UNSUPPORTED,
+        EMPTY
+    }
+
+    private final String subject;
+    private final Long userId;
+    private final List<String> authorities;
+    private final Date issuedAt;
+    private final Date expiresAt;
+    private final FailureReason failureReason;
+
+    private TokenVerification(String subject, Long userId, List<String> authorities, Date issuedAt, Date expiresAt,
+                              FailureReason failureReason) {
+        this.subject = subject;
+        this.userId = userId;
+        this.authorities = authorities;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.failureReason = failureReason;
+    }
+
+    public static TokenVerification valid(String subject, Long userId, List<String> authorities, Date issuedAt,
+                                          Date expiresAt) {
+        return new TokenVerification(subject, userId, authorities, issuedAt, expiresAt, null);
+    }
+
+    public static TokenVerification failed(FailureReason failureReason) {
+        return new TokenVerification(null, null, Collections.emptyList(), null, null, failureReason);
+    }
+
+    public boolean isValid() {
+        return this.failureReason == null;
+    }
+
+    //Getters
+    public String getSubject() {
+        return this.subject;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public List<String> getAuthorities() {
+        return this.authorities;
+    }
+
+    public Date getIssuedAt() {
+        return this.issuedAt;
+    }
+
+    public Date getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    public FailureReason getFailureReason() {
+        return this.failureReason;
+    }
+}
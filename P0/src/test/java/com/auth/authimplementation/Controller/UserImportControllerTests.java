@@ -0,0 +1,138 @@
+package com.auth.authimplementation.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.auth.authimplementation.DTO.UserImportResultDTO;
+import com.auth.authimplementation.Service.UserService;
+
+import tools.jackson.databind.ObjectMapper;
+
+//one hashing thread and a one-slot queue, so every chunk also runs hashes on the request thread (CallerRunsPolicy)
+@SpringBootTest(properties = { "users.admin.usernames=import-admin", "users.import.chunk-size=3",
+        "users.import.hashing-threads=1", "users.import.queue-capacity=1" })
+@AutoConfigureMockMvc
+class UserImportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void importIsAdminOnly() throws Exception {
+        mockMvc.perform(post("/admin/users/import").contentType(MediaType.APPLICATION_NDJSON).content(""))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/admin/users/import").with(user("someone"))
+                        .contentType(MediaType.APPLICATION_NDJSON).content(""))
+                .andExpect(status().isForbidden());
+    }
+
+    //ROLE_ADMIN comes from users.admin.usernames and is what login puts into the token
+    @Test
+    void adminUsernamesGetTheAdminRole() throws Exception {
+        mockMvc.perform(post("/admin/users/import").with(user("import-admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_NDJSON).content("{\"username\":\"import-admin\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk());
+        assertTrue(userService.loadUserByUsername("import-admin").getAuthorities()
+                .contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        mockMvc.perform(post("/admin/users/import").with(user("import-admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_NDJSON).content("{\"username\":\"not-admin\",\"password\":\"pw\"}"))
+                .andExpect(status().isOk());
+        assertTrue(userService.loadUserByUsername("not-admin").getAuthorities().isEmpty());
+    }
+
+    //one result per input row, in input order, across chunk boundaries
+    @Test
+    void ndjsonResultsCoverParseErrorsAndDuplicates() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        importNdjson("{\"username\":\"" + prefix + "-old\",\"password\":\"pw\"}");
+
+        List<UserImportResultDTO> results = importNdjson(String.join("\n",
+                "{\"username\":\"" + prefix + "-a\",\"password\":\"pw\"}",
+                "{not json",
+                "",
+                "{\"username\":\"" + prefix + "-old\",\"password\":\"pw\"}",
+                "{\"username\":\"" + prefix + "-a\",\"password\":\"other\"}",
+                "{\"username\":\"" + prefix + "-b\"}",
+                "{\"username\":\"" + prefix + "-c\",\"password\":\"pw\"}"));
+
+        assertEquals(6, results.size());
+        assertResult(results.get(0), 1, "CREATED", null);
+        assertNotNull(results.get(0).getId());
+        assertResult(results.get(1), 2, "INVALID", "Malformed JSON");
+        assertResult(results.get(2), 4, "DUPLICATE", "Username already exists");
+        //duplicate of a row created earlier in the same import, in the previous chunk
+        assertResult(results.get(3), 5, "DUPLICATE", "Username already exists");
+        assertResult(results.get(4), 6, "INVALID", "Password is required");
+        assertResult(results.get(5), 7, "CREATED", null);
+        assertTrue(userService.userExists(prefix + "-c"));
+    }
+
+    @Test
+    void csvSkipsTheHeaderAndRejectsRowsWithoutPassword() throws Exception {
+        String prefix = UUID.randomUUID().toString();
+        List<UserImportResultDTO> results = importCsv(String.join("\n",
+                "username,password",
+                prefix + "-x,pw,with,commas",
+                prefix + "-y",
+                prefix + "-x,pw"));
+
+        assertEquals(3, results.size());
+        assertResult(results.get(0), 2, "CREATED", null);
+        assertResult(results.get(1), 3, "INVALID", "Expected username,password");
+        assertResult(results.get(2), 4, "DUPLICATE", "Username already exists");
+    }
+
+    private List<UserImportResultDTO> importNdjson(String body) throws Exception {
+        return importUsers(MediaType.APPLICATION_NDJSON, body);
+    }
+
+    private List<UserImportResultDTO> importCsv(String body) throws Exception {
+        return importUsers(MediaType.valueOf("text/csv"), body);
+    }
+
+    private List<UserImportResultDTO> importUsers(MediaType contentType, String body) throws Exception {
+        String response = mockMvc.perform(post("/admin/users/import").with(user("import-admin").roles("ADMIN"))
+                        .contentType(contentType).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<UserImportResultDTO> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            if (!line.isBlank()) {
+                results.add(objectMapper.readValue(line, UserImportResultDTO.class));
+            }
+        }
+        return results;
+    }
+
+    private static void assertResult(UserImportResultDTO result, long line, String status, String message) {
+        assertEquals(line, result.getLine());
+        assertEquals(status, result.getStatus());
+        assertEquals(message, result.getMessage());
+        if (!"CREATED".equals(status)) {
+            assertNull(result.getId());
+        }
+    }
+}
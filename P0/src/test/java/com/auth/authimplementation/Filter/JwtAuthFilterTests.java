@@ -0,0 +1,56 @@
+package com.auth.authimplementation.Filter;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.Repository.UserRepo;
+import com.auth.authimplementation.Service.UserService;
+import com.auth.authimplementation.utils.JwtUtils;
+
+@SpringBootTest(properties = "jwt.filter.strict-user-lookup=true")
+@AutoConfigureMockMvc
+class JwtAuthFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private UserService userService;
+
+    //strict mode re-checks every request, so a token stops working as soon as its user is gone,
+    //even though it was accepted (and would have been cached) just before
+    @Test
+    void strictModeRejectsTokenOfDeletedUser() throws Exception {
+        User user = new User();
+        user.setUsername("strict-" + UUID.randomUUID());
+        user.setPassword("unused");
+        user = userService.saveUserDirect(user);
+        //warm the lookup cache too, the delete below bypasses it
+        userService.userExists(user.getUsername());
+        String bearer = "Bearer " + jwtUtils.generateToken(user.getUsername(), user.getId(), List.of());
+
+        mockMvc.perform(get("/secrets/mine").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        userRepo.delete(user);
+
+        mockMvc.perform(get("/secrets/mine").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,194 @@
+package com.auth.authimplementation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretRepo;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretPageDTO;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretRequestDTO;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretResponseDTO;
+import com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets;
+import com.auth.authimplementation.SecretsApp.Service.SecretService;
+import com.auth.authimplementation.utils.JwtUtils;
+
+import io.jsonwebtoken.Jwts;
+
+//before/after timings for the performance changes; they only print numbers, behaviour is covered by the regular tests
+//skipped by default, run with: mvn test -Dbenchmarks=true -Dtest=PerformanceBenchmarks
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = { "spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=INFO" })
+class PerformanceBenchmarks {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int ROWS = 5_000;
+    private static final int PAGE_SIZE = 500;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private SecretService secretService;
+
+    @Autowired
+    private SecretRepo secretRepo;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    //old filter path: parse in validate, parse in isTokenExpired, parse in extractUserName
+    @Test
+    void jwtFilterThreeParsesVersusOne() {
+        String token = jwtUtils.generateToken("alice");
+        Runnable threeParses = () -> {
+            jwtUtils.extractUserNameWithClaims(token);
+            jwtUtils.isTokenExpired(token);
+            jwtUtils.extractUserNameWithClaims(token);
+        };
+        Runnable oneParse = () -> jwtUtils.verify(token).getSubject();
+
+        System.out.println("filter path, 3 parses: " + nanosPerOp(threeParses) + " ns/request");
+        System.out.println("filter path, 1 parse:  " + nanosPerOp(oneParse) + " ns/request");
+    }
+
+    //old style: new parser and key derived from the string on every call
+    @Test
+    void jwtPerCallParserVersusPrebuiltParser() {
+        String token = jwtUtils.generateToken("alice");
+        @SuppressWarnings("deprecation")
+        Runnable perCallParser = () -> Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
+        Runnable prebuiltParser = () -> jwtUtils.extractUsername(token);
+
+        System.out.println("per-call parser: " + nanosPerOp(perCallParser) + " ns/op, "
+                + bytesPerOp(perCallParser) + " B/op");
+        System.out.println("prebuilt parser: " + nanosPerOp(prebuiltParser) + " ns/op, "
+                + bytesPerOp(prebuiltParser) + " B/op");
+    }
+
+    @Test
+    void secretSingleRowSavesVersusBatch() throws IOException {
+        //warm up both paths
+        saveOneByOne(UUID.randomUUID().toString(), 500);
+        secretService.saveSecrets(ndjson(UUID.randomUUID().toString(), 500));
+
+        long start = System.nanoTime();
+        saveOneByOne(UUID.randomUUID().toString(), ROWS);
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        secretService.saveSecrets(ndjson(UUID.randomUUID().toString(), ROWS));
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.println("saveSecret x " + ROWS + ":   " + perSecond(ROWS, singleNanos) + " rows/s");
+        System.out.println("saveSecrets batch " + ROWS + ": " + perSecond(ROWS, batchNanos) + " rows/s");
+    }
+
+    //reading /secrets/all pages (query + decrypt + map) versus the same pages mapped without decrypting
+    @Test
+    void secretPageReadsWithAndWithoutDecryption() throws IOException {
+        secretService.saveSecrets(ndjson(UUID.randomUUID().toString(), ROWS));
+
+        //warm up both paths
+        for (int i = 0; i < 5; i++) {
+            readAllPlain();
+            readAllDecrypted();
+        }
+
+        //interleaved so gc and jit noise hits both sides alike
+        long plainNanos = 0;
+        long decryptedNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            readAllPlain();
+            plainNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            readAllDecrypted();
+            decryptedNanos += System.nanoTime() - start;
+        }
+
+        long rows = secretRepo.count() * ROUNDS;
+        System.out.println("pages without decrypt: " + perSecond(rows, plainNanos) + " rows/s");
+        System.out.println("pages with decrypt:    " + perSecond(rows, decryptedNanos) + " rows/s");
+        System.out.println("encryption overhead:   " + (decryptedNanos - plainNanos) * 100 / plainNanos + " %");
+    }
+
+    private void saveOneByOne(String prefix, int rows) {
+        for (int i = 0; i < rows; i++) {
+            SecretRequestDTO secret = new SecretRequestDTO();
+            secret.setSecret(prefix + "-" + i);
+            secretService.saveSecret(secret);
+        }
+    }
+
+    private void readAllDecrypted() {
+        Long cursor = null;
+        do {
+            SecretPageDTO page = secretService.getSecretsPage(cursor, PAGE_SIZE);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+    }
+
+    //same query and dto mapping, the stored bytes are only copied into a string
+    private void readAllPlain() {
+        long cursor = 0;
+        List<Secrets> rows;
+        do {
+            rows = secretRepo.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(PAGE_SIZE + 1));
+            List<SecretResponseDTO> dtoList = new ArrayList<>(PAGE_SIZE);
+            for (int i = 0; i < rows.size() && i < PAGE_SIZE; i++) {
+                SecretResponseDTO dto = new SecretResponseDTO();
+                dto.setId(rows.get(i).getId());
+                dto.setSecret(new String(rows.get(i).getSecretCiphertext(), StandardCharsets.ISO_8859_1));
+                dtoList.add(dto);
+            }
+            if (!dtoList.isEmpty()) {
+                cursor = dtoList.get(dtoList.size() - 1).getId();
+            }
+        } while (rows.size() > PAGE_SIZE);
+    }
+
+    private static ByteArrayInputStream ndjson(String prefix, int rows) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"secret\":\"").append(prefix).append('-').append(i).append("\"}\n");
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long nanosPerOp(Runnable op) {
+        for (int i = 0; i < WARMUP; i++) {
+            op.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private static long bytesPerOp(Runnable op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - start) / ITERATIONS;
+    }
+
+    private static long perSecond(long count, long nanos) {
+        return count * 1_000_000_000L / nanos;
+    }
+}
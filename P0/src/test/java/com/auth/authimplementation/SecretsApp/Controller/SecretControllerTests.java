@@ -0,0 +1,322 @@
+package com.auth.authimplementation.SecretsApp.Controller;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.SecretsApp.SecretMapper.toEntity;
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretRepo;
+import com.auth.authimplementation.Service.AuthenticatedUser;
+import com.auth.authimplementation.Service.UserService;
+import com.jayway.jsonpath.JsonPath;
+
+//small pages, so paging and the size cap are visible with a handful of rows
+@SpringBootTest(properties = { "secrets.page.default-size=3", "secrets.page.max-size=5" })
+@AutoConfigureMockMvc
+class SecretControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SecretRepo secretRepo;
+
+    //another user gets 404 for read and delete, and a refused delete doesn't touch the owner's secret
+    @Test
+    void onlyTheOwnerCanReadOrDeleteASecret() throws Exception {
+        AuthenticatedUser owner = newUser();
+        AuthenticatedUser other = newUser();
+        String value = UUID.randomUUID().toString();
+        String saved = mockMvc.perform(post("/secrets/save").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"secret\":\"" + value + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = ((Number) JsonPath.read(saved, "$.id")).longValue();
+
+        mockMvc.perform(get("/secrets/" + id).with(user(other))).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/secrets/" + id).with(user(other))).andExpect(status().isNotFound());
+        mockMvc.perform(get("/secrets/" + id).with(user(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.secret").value(value));
+
+        mockMvc.perform(delete("/secrets/" + id).with(user(owner))).andExpect(status().isNoContent());
+        mockMvc.perform(get("/secrets/" + id).with(user(owner))).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/secrets/" + id).with(user(owner))).andExpect(status().isNotFound());
+    }
+
+    //malformed json or a missing secret is a 400 naming the element, and nothing of the batch is saved
+    @Test
+    void malformedBatchIsRejectedWithTheOffendingElement() throws Exception {
+        AuthenticatedUser owner = newUser();
+        String first = UUID.randomUUID().toString();
+        String ndjson = "{\"secret\":\"" + first + "\"}\n{\"secret\":\"x\"}\n{\"secret\": oops}\n";
+        mockMvc.perform(post("/secrets/batch").with(user(owner))
+                        .contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Element 2: malformed JSON (line 3,")));
+        mockMvc.perform(post("/secrets/batch").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("[{\"secret\":\"" + first + "\"}, {}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Element 1: secret is required"));
+        mockMvc.perform(post("/secrets/batch").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("not json"))
+                .andExpect(status().isBadRequest());
+
+        //the batches were rolled back, so the first value can still be saved
+        mockMvc.perform(post("/secrets/save").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"secret\":\"" + first + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    //values whose ciphertext wouldn't fit the column are a 400 up front, not a failed insert or a 409
+    @Test
+    void overLongSecretIsRejected() throws Exception {
+        AuthenticatedUser owner = newUser();
+        String prefix = UUID.randomUUID().toString();
+        String longest = prefix + "a".repeat(toEntity.MAX_SECRET_BYTES - prefix.length());
+        mockMvc.perform(post("/secrets/save").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"secret\":\"" + longest + "\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/secrets/save").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"secret\":\"" + longest + "b\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Secret is longer than " + toEntity.MAX_SECRET_BYTES + " bytes (UTF-8)"));
+        //the limit is in utf-8 bytes, not characters
+        String multiByte = "é".repeat(toEntity.MAX_SECRET_BYTES / 2 + 1);
+        mockMvc.perform(post("/secrets/save").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"secret\":\"" + multiByte + "\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/secrets/batch").with(user(owner)).contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"secret\":\"" + prefix + "-ok\"}\n{\"secret\":\"" + longest + "b\"}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Element 1: Secret is longer than")));
+    }
+
+    //following nextCursor visits every row once, in id order, and the last page has no cursor
+    @Test
+    void pagesFollowTheCursorWithoutGapsOrDuplicates() throws Exception {
+        AuthenticatedUser owner = newUser();
+        List<String> values = values(7);
+        List<Long> ids = saveBatch(owner, values);
+
+        List<Integer> pageSizes = new ArrayList<>();
+        List<Long> seen = new ArrayList<>();
+        List<String> seenValues = new ArrayList<>();
+        Long cursor = ids.get(0) - 1;
+        do {
+            String page = mockMvc.perform(get("/secrets/all").with(user(owner))
+                            .param("after", cursor.toString()).param("limit", "3"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            List<Map<String, Object>> secrets = JsonPath.read(page, "$.items");
+            pageSizes.add(secrets.size());
+            for (Map<String, Object> secret : secrets) {
+                seen.add(((Number) secret.get("id")).longValue());
+                seenValues.add((String) secret.get("secret"));
+            }
+            Number next = JsonPath.read(page, "$.nextCursor");
+            cursor = next == null ? null : next.longValue();
+        } while (cursor != null);
+
+        assertEquals(List.of(3, 3, 1), pageSizes);
+        assertEquals(ids, seen);
+        assertEquals(values, seenValues);
+
+        //the whole table from the start: strictly increasing ids, as many as there are rows
+        List<Long> all = new ArrayList<>();
+        cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/secrets/all").with(user(owner)).param("limit", "5");
+            if (cursor != null) {
+                request.param("after", cursor.toString());
+            }
+            String page = mockMvc.perform(request).andReturn().getResponse().getContentAsString();
+            List<Number> pageIds = JsonPath.read(page, "$.items[*].id");
+            pageIds.forEach(id -> all.add(id.longValue()));
+            Number next = JsonPath.read(page, "$.nextCursor");
+            cursor = next == null ? null : next.longValue();
+        } while (cursor != null);
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1) < all.get(i), "ids out of order at " + i);
+        }
+        assertEquals(secretRepo.count(), all.size());
+    }
+
+    //limit is clamped to [1, secrets.page.max-size]; without one the default size is used
+    @Test
+    void pageSizeIsClamped() throws Exception {
+        AuthenticatedUser owner = newUser();
+        List<Long> ids = saveBatch(owner, values(7));
+        String after = String.valueOf(ids.get(0) - 1);
+
+        mockMvc.perform(get("/secrets/all").with(user(owner)).param("after", after).param("limit", "100000"))
+                .andExpect(jsonPath("$.items.length()").value(5))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(4)));
+        mockMvc.perform(get("/secrets/all").with(user(owner)).param("after", after).param("limit", "0"))
+                .andExpect(jsonPath("$.items.length()").value(1));
+        mockMvc.perform(get("/secrets/all").with(user(owner)).param("after", after).param("limit", "-3"))
+                .andExpect(jsonPath("$.items.length()").value(1));
+        mockMvc.perform(get("/secrets/all").with(user(owner)).param("after", after))
+                .andExpect(jsonPath("$.items.length()").value(3));
+    }
+
+    //one compact json object per line, every row in id order, values decrypted
+    @Test
+    void exportWritesOneJsonObjectPerLine() throws Exception {
+        AuthenticatedUser owner = newUser();
+        List<String> values = values(3);
+        List<Long> ids = saveBatch(owner, values);
+
+        String body = mockMvc.perform(get("/secrets/export").with(user(owner)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.endsWith("\n"));
+        String[] lines = body.split("\n");
+        assertEquals(secretRepo.count(), lines.length);
+        long previousId = 0;
+        List<String> exported = new ArrayList<>();
+        for (String line : lines) {
+            assertTrue(line.startsWith("{") && line.endsWith("}"), line);
+            long id = ((Number) JsonPath.read(line, "$.id")).longValue();
+            assertTrue(previousId < id);
+            previousId = id;
+            if (ids.contains(id)) {
+                exported.add(JsonPath.read(line, "$.secret"));
+            }
+        }
+        assertEquals(values, exported);
+    }
+
+    //an unchanged listing revalidates to an empty 304; a save or delete makes the next poll a 200 with a new etag
+    @Test
+    void listingIsRevalidatedWithTheETag() throws Exception {
+        AuthenticatedUser owner = newUser();
+        String etag = mockMvc.perform(get("/secrets/all").with(user(owner)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/secrets/all").with(user(owner)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        String saved = mockMvc.perform(post("/secrets/save").with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"secret\":\"" + UUID.randomUUID() + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String afterSave = mockMvc.perform(get("/secrets/all").with(user(owner)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, afterSave);
+
+        mockMvc.perform(delete("/secrets/" + JsonPath.read(saved, "$.id")).with(user(owner)))
+                .andExpect(status().isNoContent());
+        String afterDelete = mockMvc.perform(get("/secrets/all").with(user(owner)).header(HttpHeaders.IF_NONE_MATCH, afterSave))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(afterSave, afterDelete);
+        assertNotEquals(etag, afterDelete);
+    }
+
+    //each owner pages through only their own rows, even when both saved the same value
+    @Test
+    void mineOnlyListsTheCallersSecrets() throws Exception {
+        AuthenticatedUser first = newUser();
+        AuthenticatedUser second = newUser();
+        List<String> firstValues = values(4);
+        List<String> secondValues = new ArrayList<>(values(1));
+        //a value the first owner has too is not a duplicate for the second one
+        secondValues.add(firstValues.get(0));
+        List<Long> firstIds = saveBatch(first, firstValues);
+        List<Long> secondIds = saveBatch(second, secondValues);
+
+        String page = mockMvc.perform(get("/secrets/mine").with(user(first)).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(firstIds.subList(0, 3), ids(page));
+        assertEquals(firstValues.subList(0, 3), JsonPath.read(page, "$.items[*].secret"));
+        Number next = JsonPath.read(page, "$.nextCursor");
+        assertEquals(firstIds.get(2), next.longValue());
+
+        page = mockMvc.perform(get("/secrets/mine").with(user(first))
+                        .param("after", next.toString()).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(firstIds.subList(3, 4), ids(page));
+        assertNull(JsonPath.read(page, "$.nextCursor"));
+
+        page = mockMvc.perform(get("/secrets/mine").with(user(second)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(secondIds, ids(page));
+        assertEquals(secondValues, JsonPath.read(page, "$.items[*].secret"));
+        assertNull(JsonPath.read(page, "$.nextCursor"));
+    }
+
+    private List<Long> saveBatch(AuthenticatedUser owner, List<String> values) throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        values.forEach(value -> ndjson.append("{\"secret\":\"").append(value).append("\"}\n"));
+        String saved = mockMvc.perform(post("/secrets/batch").with(user(owner))
+                        .contentType(MediaType.APPLICATION_NDJSON).content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(saved, "$");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private static List<Long> ids(String page) {
+        List<Number> ids = JsonPath.read(page, "$.items[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private static List<String> values(int count) {
+        String prefix = UUID.randomUUID().toString();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(prefix + "-" + i);
+        }
+        return values;
+    }
+
+    private AuthenticatedUser newUser() {
+        User user = new User();
+        user.setUsername("secret-owner-" + UUID.randomUUID());
+        user.setPassword("unused");
+        User saved = userService.saveUserDirect(user);
+        return new AuthenticatedUser(saved.getId(), saved.getUsername(), "", List.of());
+    }
+}
@@ -0,0 +1,92 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretDataKeyRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+class SecretCipherTests {
+    //stored layout: [version 1][data key id 8][iv 12][ciphertext + tag]
+    private static final int KEY_ID_OFFSET = 1;
+    private static final int IV_OFFSET = 9;
+
+    @Autowired
+    private SecretCipher secretCipher;
+
+    @Autowired
+    private SecretDataKeyRepo dataKeyRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${secrets.encryption.master-key}")
+    private String masterKey;
+
+    @Test
+    void roundTripWithFreshIv() {
+        String value = "top secret, ünïcødé ✓";
+        byte[] first = secretCipher.encrypt(value);
+        byte[] second = secretCipher.encrypt(value);
+
+        assertEquals(value, secretCipher.decrypt(first));
+        assertEquals(value, secretCipher.decrypt(second));
+        assertFalse(new String(first, StandardCharsets.ISO_8859_1).contains("top secret"));
+        assertFalse(Arrays.equals(Arrays.copyOfRange(first, IV_OFFSET, IV_OFFSET + 12),
+                Arrays.copyOfRange(second, IV_OFFSET, IV_OFFSET + 12)));
+        assertEquals("", secretCipher.decrypt(secretCipher.encrypt("")));
+    }
+
+    @Test
+    void digestIsDeterministicPerValue() {
+        assertArrayEquals(secretCipher.digest("top secret"), secretCipher.digest("top secret"));
+        assertFalse(Arrays.equals(secretCipher.digest("top secret"), secretCipher.digest("top secret!")));
+    }
+
+    @Test
+    void tamperedIvCiphertextOrTagFailsToDecrypt() {
+        byte[] stored = secretCipher.encrypt("top secret");
+        for (int offset : new int[] { IV_OFFSET, IV_OFFSET + 12, stored.length - 1 }) {
+            byte[] tampered = stored.clone();
+            tampered[offset] ^= 1;
+            assertThrows(IllegalStateException.class, () -> secretCipher.decrypt(tampered));
+        }
+    }
+
+    //the header (version + data key id) is the gcm aad: pointing a value at another valid data key, or changing
+    //the version, fails instead of decrypting under the wrong key
+    @Test
+    void tamperedHeaderFailsToDecrypt() {
+        //rotation 0: every encrypt creates a new data key
+        SecretCipher rotating = new SecretCipher(masterKey, 0, 3600, dataKeyRepo, transactionManager,
+                new SimpleMeterRegistry());
+        byte[] first = rotating.encrypt("first");
+        byte[] second = rotating.encrypt("second");
+        long secondKeyId = ByteBuffer.wrap(second, KEY_ID_OFFSET, 8).getLong();
+        assertFalse(secondKeyId == ByteBuffer.wrap(first, KEY_ID_OFFSET, 8).getLong());
+        assertEquals("first", rotating.decrypt(first));
+
+        byte[] repointed = first.clone();
+        ByteBuffer.wrap(repointed).putLong(KEY_ID_OFFSET, secondKeyId);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> rotating.decrypt(repointed));
+        assertEquals("Secret decryption failed", e.getMessage());
+
+        byte[] otherVersion = first.clone();
+        otherVersion[0] = 2;
+        assertThrows(IllegalStateException.class, () -> rotating.decrypt(otherVersion));
+    }
+}
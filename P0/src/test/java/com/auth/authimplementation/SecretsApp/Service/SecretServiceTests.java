@@ -0,0 +1,149 @@
+package com.auth.authimplementation.SecretsApp.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.SecretsApp.SecretRepo.SecretRepo;
+import com.auth.authimplementation.SecretsApp.SecretsDTO.SecretRequestDTO;
+import com.auth.authimplementation.SecretsApp.SecretsEntity.Secrets;
+import com.auth.authimplementation.Service.AuthenticatedUser;
+import com.auth.authimplementation.Service.UserService;
+
+@SpringBootTest
+class SecretServiceTests {
+
+    @Autowired
+    private SecretService secretService;
+
+    @Autowired
+    private SecretRepo secretRepo;
+
+    @Autowired
+    private SecretCipher secretCipher;
+
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+
+    //secrets are saved for the user in the security context, as JwtAuthFilter would set it
+    @BeforeEach
+    void signIn() {
+        owner = signInAsNewUser();
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void batchReturnsIdsInInputOrderAndRejectsDuplicates() throws IOException {
+        String prefix = UUID.randomUUID().toString();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            ndjson.append("{\"secret\":\"").append(prefix).append('-').append(i).append("\"}\n");
+        }
+        List<Long> ids = secretService.saveSecrets(body(ndjson.toString()));
+        assertEquals(3, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(prefix + "-" + i, secretService.getSecretById(ids.get(i)).getSecret());
+        }
+
+        List<Long> arrayIds = secretService.saveSecrets(body("[{\"secret\":\"" + prefix + "-a\"}]"));
+        assertEquals(prefix + "-a", secretService.getSecretById(arrayIds.get(0)).getSecret());
+
+        //whole batch is rolled back
+        String other = UUID.randomUUID().toString();
+        assertThrows(DuplicateSecretException.class,
+                () -> secretService.saveSecrets(body("{\"secret\":\"" + other + "\"}\n{\"secret\":\"" + prefix + "-0\"}")));
+        assertNull(secretService.getSecretByValue(other));
+    }
+
+    //values are unique per owner: another user can save the same value, and doesn't see the first one's
+    @Test
+    void sameValueIsOnlyADuplicateForTheSameOwner() throws IOException {
+        String value = UUID.randomUUID().toString();
+        SecretRequestDTO request = new SecretRequestDTO();
+        request.setSecret(value);
+        long firstId = secretService.saveSecret(request).getId();
+        assertThrows(DuplicateSecretException.class, () -> secretService.saveSecret(request));
+
+        signInAsNewUser();
+        assertNull(secretService.getSecretByValue(value));
+        long secondId = secretService.saveSecret(request).getId();
+        assertEquals(secondId, secretService.getSecretByValue(value).getId());
+        assertThrows(DuplicateSecretException.class,
+                () -> secretService.saveSecrets(body("{\"secret\":\"" + value + "\"}")));
+
+        signInAs(owner);
+        assertEquals(firstId, secretService.getSecretByValue(value).getId());
+    }
+
+    //only a digest index violation is a duplicate; a value too long for its column is not
+    @Test
+    void onlyTheDigestIndexIsTreatedAsDuplicate() {
+        String value = UUID.randomUUID().toString();
+        SecretRequestDTO request = new SecretRequestDTO();
+        request.setSecret(value);
+        secretService.saveSecret(request);
+        assertThrows(DuplicateSecretException.class, () -> secretService.saveSecret(request));
+
+        Secrets sameDigest = secret(secretCipher.encrypt(value), secretCipher.digest(value));
+        DataIntegrityViolationException digestViolation =
+                assertThrows(DataIntegrityViolationException.class, () -> secretRepo.saveAndFlush(sameDigest));
+        assertTrue(SecretService.isDigestViolation(digestViolation));
+
+        String other = UUID.randomUUID().toString();
+        Secrets tooLong = secret(new byte[Secrets.CIPHERTEXT_LENGTH + 1], secretCipher.digest(other));
+        DataIntegrityViolationException lengthViolation =
+                assertThrows(DataIntegrityViolationException.class, () -> secretRepo.saveAndFlush(tooLong));
+        assertFalse(SecretService.isDigestViolation(lengthViolation));
+    }
+
+    private Secrets secret(byte[] ciphertext, byte[] digest) {
+        Secrets secret = new Secrets();
+        secret.setSecretCiphertext(ciphertext);
+        secret.setSecretDigest(digest);
+        secret.setOwner(owner);
+        return secret;
+    }
+
+    private User signInAsNewUser() {
+        User user = new User();
+        user.setUsername("secret-service-" + UUID.randomUUID());
+        user.setPassword("unused");
+        User saved = userService.saveUserDirect(user);
+        signInAs(saved);
+        return saved;
+    }
+
+    private static void signInAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static ByteArrayInputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,125 @@
+package com.auth.authimplementation.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.Repository.UserRepo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserLookupCacheTests {
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final UserLookupCache cache = new UserLookupCache(userRepo, 100, 600, new SimpleMeterRegistry());
+
+    //signup checks userExists first, so the "absent" answer is cached until the save invalidates it
+    @Test
+    void absentUsernamesAreCachedUntilInvalidated() {
+        when(userRepo.findByUsername("alice")).thenReturn(Optional.empty());
+        assertFalse(cache.findByUsername("alice").isPresent());
+        assertFalse(cache.findByUsername("alice").isPresent());
+        verify(userRepo, times(1)).findByUsername("alice");
+
+        when(userRepo.findByUsername("alice")).thenReturn(Optional.of(user(1, "alice", "hash-1")));
+        assertFalse(cache.findByUsername("alice").isPresent());
+        cache.invalidate("alice");
+        assertEquals(1, cache.findByUsername("alice").orElseThrow().getId());
+    }
+
+    @Test
+    void invalidationPicksUpAChangedPassword() {
+        when(userRepo.findByUsername("bob")).thenReturn(Optional.of(user(2, "bob", "hash-1")));
+        assertEquals("hash-1", cache.findByUsername("bob").orElseThrow().getPassword());
+
+        when(userRepo.findByUsername("bob")).thenReturn(Optional.of(user(2, "bob", "hash-2")));
+        assertEquals("hash-1", cache.findByUsername("bob").orElseThrow().getPassword());
+        cache.invalidate("bob");
+        assertEquals("hash-2", cache.findByUsername("bob").orElseThrow().getPassword());
+    }
+
+    //callers get their own copy; changing it doesn't change the cached entry
+    @Test
+    void returnsDetachedCopies() {
+        when(userRepo.findByUsername("carol")).thenReturn(Optional.of(user(3, "carol", "hash-1")));
+        cache.findByUsername("carol").orElseThrow().setPassword("changed");
+        assertEquals("hash-1", cache.findByUsername("carol").orElseThrow().getPassword());
+    }
+
+    @Test
+    void reloadAlwaysQueriesAndReplacesTheEntry() {
+        when(userRepo.findByUsername("dave")).thenReturn(Optional.of(user(4, "dave", "hash-1")));
+        assertTrue(cache.findByUsername("dave").isPresent());
+
+        //deleted outside the app
+        when(userRepo.findByUsername("dave")).thenReturn(Optional.empty());
+        assertFalse(cache.reload("dave").isPresent());
+        assertFalse(cache.findByUsername("dave").isPresent());
+        verify(userRepo, times(2)).findByUsername("dave");
+    }
+
+    //concurrent lookups of the same cold username wait for the first one's query instead of issuing their own
+    @Test
+    void concurrentColdLookupsShareOneQuery() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepo.findByUsername("erin")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(user(5, "erin", "hash-1"));
+        });
+
+        int threads = 8;
+        List<Thread> started = new CopyOnWriteArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable);
+            started.add(thread);
+            return thread;
+        });
+        try {
+            List<Future<Optional<User>>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.findByUsername("erin")));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < threads; i++) {
+                results.add(pool.submit(() -> cache.findByUsername("erin")));
+            }
+            //release the query only once every other lookup is parked behind it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (started.stream().anyMatch(t -> t.getState() == Thread.State.NEW || t.getState() == Thread.State.RUNNABLE)
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<Optional<User>> result : results) {
+                assertEquals(5, result.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(userRepo, times(1)).findByUsername("erin");
+    }
+
+    private static User user(long id, String username, String password) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword(password);
+        return user;
+    }
+}
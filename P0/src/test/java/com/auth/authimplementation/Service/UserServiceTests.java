@@ -0,0 +1,70 @@
+package com.auth.authimplementation.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.auth.authimplementation.DTO.LoginDTO;
+import com.auth.authimplementation.DTO.RegisterDTO;
+import com.auth.authimplementation.Entity.User;
+import com.auth.authimplementation.Repository.UserRepo;
+
+@SpringBootTest(properties = { "password.bcrypt.calibrate=false", "password.bcrypt.strength=11" })
+class UserServiceTests {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserService userService;
+
+    //a hash with another cost is rehashed at the current one by a successful login (UserDetailsPasswordService)
+    @Test
+    void loginRehashesPasswordsWithAnotherCost() throws Exception {
+        String username = "rehash-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(new BCryptPasswordEncoder(10).encode("secret-pw"));
+        userRepo.save(user);
+
+        LoginDTO login = new LoginDTO();
+        login.setUsername(username);
+        login.setPassword("secret-pw");
+        authService.login(login).get();
+
+        String stored = userRepo.findByUsername(username).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$11$"), stored);
+        assertTrue(passwordEncoder.matches("secret-pw", stored));
+        //the login cached the old hash; the rehash must invalidate it
+        assertEquals(stored, userService.getUserEntity(username).getPassword());
+    }
+
+    //signup's userExists check caches "absent"; the save must invalidate it
+    @Test
+    void signupIsVisibleAfterACachedMiss() throws Exception {
+        String username = "signup-" + UUID.randomUUID();
+        assertFalse(userService.userExists(username));
+
+        RegisterDTO register = new RegisterDTO();
+        register.setUsername(username);
+        register.setPassword("secret-pw");
+        userService.saveUser(register, passwordEncoder).get();
+
+        assertTrue(userService.userExists(username));
+        assertEquals(username, userService.loadUserByUsername(username).getUsername());
+    }
+}
@@ -0,0 +1,76 @@
+package com.auth.authimplementation.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.auth.authimplementation.utils.TokenVerification.FailureReason;
+
+class JwtUtilsTests {
+    private static final String SECRET = "hsrnjgnsongjajobgjbajbguibuirbiwbeihbtibitwibeuitwuinjfgjnjgdfgbfdt";
+    private static final String OTHER_SECRET = "tdfbgfdgjnjfjnuiwtuiebwtibitbhiebwiubriubugbajbgjobajagnosngjnrsh";
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 86400000);
+
+    @Test
+    void validTokenCarriesSubjectAndClaims() {
+        String token = jwtUtils.generateToken("alice", 42L, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        TokenVerification verification = jwtUtils.verify(token);
+        assertTrue(verification.isValid());
+        assertNull(verification.getFailureReason());
+        assertEquals("alice", verification.getSubject());
+        assertEquals(42L, verification.getUserId());
+        assertEquals(List.of("ROLE_ADMIN"), verification.getAuthorities());
+        assertTrue(verification.getExpiresAt().after(verification.getIssuedAt()));
+    }
+
+    //tokens issued before the uid/authorities claims existed still verify
+    @Test
+    void subjectOnlyTokenHasNoUserIdOrAuthorities() {
+        TokenVerification verification = jwtUtils.verify(jwtUtils.generateToken("bob"));
+        assertTrue(verification.isValid());
+        assertNull(verification.getUserId());
+        assertTrue(verification.getAuthorities().isEmpty());
+    }
+
+    @Test
+    void expiredToken() {
+        String token = new JwtUtils(SECRET, -1000).generateToken("alice");
+        assertEquals(FailureReason.EXPIRED, jwtUtils.verify(token).getFailureReason());
+    }
+
+    @Test
+    void tamperedSignature() {
+        String token = jwtUtils.generateToken("alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("xx") ? "yy" : "xx");
+        assertEquals(FailureReason.BAD_SIGNATURE, jwtUtils.verify(tampered).getFailureReason());
+    }
+
+    //payload swapped for another subject, signature kept
+    @Test
+    void tamperedPayload() {
+        String[] parts = jwtUtils.generateToken("alice").split("\\.");
+        String[] other = jwtUtils.generateToken("mallory").split("\\.");
+        String forged = parts[0] + "." + other[1] + "." + parts[2];
+        assertEquals(FailureReason.BAD_SIGNATURE, jwtUtils.verify(forged).getFailureReason());
+    }
+
+    @Test
+    void tokenSignedWithAnotherKey() {
+        String token = new JwtUtils(OTHER_SECRET, 86400000).generateToken("alice");
+        assertEquals(FailureReason.BAD_SIGNATURE, jwtUtils.verify(token).getFailureReason());
+    }
+
+    @Test
+    void malformedAndEmptyTokens() {
+        assertEquals(FailureReason.MALFORMED, jwtUtils.verify("not-a-jwt").getFailureReason());
+        assertEquals(FailureReason.EMPTY, jwtUtils.verify("").getFailureReason());
+        assertEquals(FailureReason.EMPTY, jwtUtils.verify(null).getFailureReason());
+    }
+}
@@ -1,5 +1,8 @@
 package com.pone.jwtauth.Config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -7,22 +10,27 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.pone.jwtauth.Filter.JwtAuthFilter;
+import com.pone.jwtauth.Filter.VerifiedTokenCache;
 import com.pone.jwtauth.Service.UserService;
 import com.pone.jwtauth.util.JwtUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtAuthFilter jwtAuthFilter;
 
-    public SecurityConfig(UserService userService, JwtUtil jwtUtil) {
-        this.jwtAuthFilter = new JwtAuthFilter(userService, jwtUtil);
+    public SecurityConfig(UserService userService, JwtUtil jwtUtil, VerifiedTokenCache verifiedTokenCache,
+                          @Value("${jwt.filter.strict-user-lookup:false}") boolean strictUserLookup) {
+        this.jwtAuthFilter = new JwtAuthFilter(userService, jwtUtil, verifiedTokenCache, strictUserLookup);
     }
 
     @Bean
@@ -54,9 +62,22 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    //one shared encoder (and SecureRandom) for the whole app
+    //the bcrypt work factor is calibrated at startup to fit password.bcrypt.target-millis per hash,
+    //or fixed to password.bcrypt.strength when calibration is off
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.calibrate:true}") boolean calibrate,
+                                           @Value("${password.bcrypt.strength:10}") int strength,
+                                           @Value("${password.bcrypt.target-millis:100}") long targetMillis,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:14}") int maxStrength,
+                                           MeterRegistry meterRegistry) {
+        CalibratedPasswordEncoder encoder = calibrate
+                ? CalibratedPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength)
+                : CalibratedPasswordEncoder.withStrength(strength);
+        log.info("BCrypt work factor: {}", encoder.getStrength());
+        encoder.bindMetrics(meterRegistry);
+        return encoder;
     }
 
     
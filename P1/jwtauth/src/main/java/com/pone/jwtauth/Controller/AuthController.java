@@ -1,5 +1,8 @@
 package com.pone.jwtauth.Controller;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -8,9 +11,13 @@ import com.pone.jwtauth.DTO.LoginRequestDTO;
 import com.pone.jwtauth.DTO.RegisterResponseDTO;
 import com.pone.jwtauth.Mapper.toResponse;
 import com.pone.jwtauth.Service.AuthService;
+import com.pone.jwtauth.Service.AuthenticatedUser;
+import com.pone.jwtauth.Service.LoginRateLimiter;
 import com.pone.jwtauth.Service.UserService;
 import com.pone.jwtauth.util.JwtUtil;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
@@ -21,22 +28,33 @@ public class AuthController {
     private final AuthService authService;
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthController(AuthService authService, UserService userService, JwtUtil jwtUtil) {
+    public AuthController(AuthService authService, UserService userService, JwtUtil jwtUtil, PasswordEncoder passwordEncoder,
+                          LoginRateLimiter loginRateLimiter) {
         this.authService = authService;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
+    //async: the request thread is released while the password is hashed
     @PostMapping("/signup")
-    public RegisterResponseDTO registerUser(@RequestBody com.pone.jwtauth.DTO.RegisterRequestDTO registerDTO) {
-        return userService.registerUser(registerDTO);
+    public CompletableFuture<RegisterResponseDTO> registerUser(@RequestBody com.pone.jwtauth.DTO.RegisterRequestDTO registerDTO) {
+        return userService.registerUser(registerDTO, passwordEncoder);
     }
 
     @PostMapping("/login")
-        public AuthResponseDTO login(@RequestBody LoginRequestDTO request) {
-        String validatedUsername = authService.login(request);
-        String token = jwtUtil.generateToken(validatedUsername);
+        public CompletableFuture<AuthResponseDTO> login(@RequestBody LoginRequestDTO request, HttpServletRequest httpRequest) {
+        //throttled attempts are rejected here with 429, before any bcrypt work is queued
+        loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.getUsername());
+        return authService.login(request).thenApply(this::issueToken);
+    }
+
+    private AuthResponseDTO issueToken(AuthenticatedUser user) {
+        String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getAuthorities());
         return toResponse.mapToAuthResponseDTO(token);
     }
     
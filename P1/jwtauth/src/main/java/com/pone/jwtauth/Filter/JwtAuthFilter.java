@@ -1,16 +1,22 @@
 package com.pone.jwtauth.Filter;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.pone.jwtauth.Service.AuthenticatedUser;
 import com.pone.jwtauth.Service.UserService;
 import com.pone.jwtauth.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,9 +26,17 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter{ 
     private final UserService userService;
     private final JwtUtil   jwtUtil;
-    public JwtAuthFilter(UserService userService, JwtUtil jwtUtil) {
+    private final VerifiedTokenCache verifiedTokenCache;
+    //false: principal is built from the verified claims, no db round trip
+    //true: every request is re-checked against the users table via loadUserByUsername; verified tokens are
+    //not cached, so a deleted or changed user is rejected on the next request
+    private final boolean strictUserLookup;
+    public JwtAuthFilter(UserService userService, JwtUtil jwtUtil, VerifiedTokenCache verifiedTokenCache,
+                         @Value("${jwt.filter.strict-user-lookup:false}") boolean strictUserLookup) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.strictUserLookup = strictUserLookup;
     }
 
 
@@ -40,21 +54,44 @@ public class JwtAuthFilter extends OncePerRequestFilter{
         //check if header is present and starts with Bearer
         if(authHeader != null && authHeader.startsWith("Bearer ")){
             token = authHeader.substring(7);
-            try{
-                username = jwtUtil.extractUsername(token);
-                System.out.println("Authenticated user: " + username);
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities()
-                );
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }catch(Exception e){
-                System.out.println("Invalid token: " + e.getMessage());
+            //repeat requests with an already-verified token skip parsing and the signature check
+            //(not in strict mode: a cached entry would outlive a deleted user until the token's exp)
+            Authentication cached = strictUserLookup ? null : verifiedTokenCache.get(token);
+            if(cached != null){
+                SecurityContextHolder.getContext().setAuthentication(cached);
+            }else{
+                try{
+                    Claims claims = jwtUtil.getClaims(token);
+                    username = claims.getSubject();
+                    System.out.println("Authenticated user: " + username);
+                    UserDetails userDetails = loadPrincipal(claims);
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                    );
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    if(!strictUserLookup){
+                        verifiedTokenCache.put(token, authentication, claims.getExpiration());
+                    }
+                }catch(Exception e){
+                    System.out.println("Invalid token: " + e.getMessage());
+                }
             }
         }
         filterChain.doFilter(request, response);
         
     }
+
+    private UserDetails loadPrincipal(Claims claims) {
+        Long userId = jwtUtil.extractUserId(claims);
+        //tokens issued before the uid claim existed still need the db lookup
+        if (strictUserLookup || userId == null) {
+            return userService.loadUserByUsername(claims.getSubject());
+        }
+        List<SimpleGrantedAuthority> authorities = jwtUtil.extractAuthorities(claims).stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new AuthenticatedUser(userId, claims.getSubject(), "", authorities);
+    }
 }
@@ -0,0 +1,21 @@
+package com.pone.jwtauth.Service;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+//security principal that also carries the database id of the user
+//built by loadUserByUsername (db lookup) or straight from verified jwt claims (stateless filter mode)
+public class AuthenticatedUser extends User {
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+}
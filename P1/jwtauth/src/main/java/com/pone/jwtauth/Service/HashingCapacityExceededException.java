@@ -0,0 +1,15 @@
+package com.pone.jwtauth.Service;
+
+//thrown when the password hashing queue is full; the client should retry after retryAfterSeconds
+public class HashingCapacityExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(long retryAfterSeconds) {
+        super("Password hashing capacity exceeded, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return this.retryAfterSeconds;
+    }
+}
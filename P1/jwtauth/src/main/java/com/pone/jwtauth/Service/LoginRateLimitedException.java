@@ -0,0 +1,15 @@
+package com.pone.jwtauth.Service;
+
+//thrown when a login attempt exceeds the per-ip or per-username rate; the client should retry after retryAfterSeconds
+public class LoginRateLimitedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(long retryAfterSeconds) {
+        super("Too many login attempts, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return this.retryAfterSeconds;
+    }
+}
@@ -1,8 +1,14 @@
 package com.pone.jwtauth.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.pone.jwtauth.DTO.RegisterRequestDTO;
@@ -13,26 +19,34 @@ import com.pone.jwtauth.Mapper.toResponse;
 import com.pone.jwtauth.Repo.UserRepo;
 
 @Service
-public class UserService  implements UserDetailsService {
+public class UserService  implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepo userRepo;
-    public UserService(UserRepo userRepo) {
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Executor saveExecutor;
+    public UserService(UserRepo userRepo, PasswordHashingExecutor passwordHashingExecutor,
+                       @Qualifier("applicationTaskExecutor") Executor saveExecutor) {
         this.userRepo = userRepo;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.saveExecutor = saveExecutor;
     }
     
     //register new user function:
-    public RegisterResponseDTO registerUser(RegisterRequestDTO dto){
+    //the mapper hashes the password, so it runs on the hashing pool (HashingCapacityExceededException if saturated)
+    //the insert runs on the application task executor, so a bcrypt worker isn't held for the db round trip
+    public CompletableFuture<RegisterResponseDTO> registerUser(RegisterRequestDTO dto, PasswordEncoder passwordEncoder){
         //check if user already exists
         if(userRepo.findByUsername(dto.getUsername()).isPresent()){
             System.out.println("Username already exists: " + dto.getUsername());
-            return new RegisterResponseDTO(null, null, "Username already exists");
+            return CompletableFuture.completedFuture(new RegisterResponseDTO(null, null, "Username already exists"));
         }
         //map dto to entity
-        User user = toEntity.mapRegisterRequestDTOtoUser(dto);
-        //save user to db
-        userRepo.save(user);
-        //return response dto
-        RegisterResponseDTO responseDTO = toResponse.mapToRegisterResponseDTO(user, "User registered successfully");
-        return responseDTO;
+        return passwordHashingExecutor.submit(() -> toEntity.mapRegisterRequestDTOtoUser(dto, passwordEncoder))
+                .thenApplyAsync(user -> {
+                    //save user to db
+                    userRepo.save(user);
+                    //return response dto
+                    return toResponse.mapToRegisterResponseDTO(user, "User registered successfully");
+                }, saveExecutor);
     }
 
     public User saveUserDirect(User user){
@@ -45,7 +59,8 @@ public class UserService  implements UserDetailsService {
     throws UsernameNotFoundException{
         User user = userRepo.findByUsername(usernameOrEmail)
         .orElseThrow(()-> new UsernameNotFoundException("User not found with username: " + usernameOrEmail));
-         return new org.springframework.security.core.userdetails.User(
+         return new AuthenticatedUser(
+            user.getId(),
             user.getUsername(),
             user.getPassword(),
             new java.util.ArrayList<>()
@@ -60,4 +75,14 @@ public class UserService  implements UserDetailsService {
     public User getUserEntity(String username){
         return userRepo.findByUsername(username).orElseThrow(()->new RuntimeException("User not found"));
     }
+
+    //called by DaoAuthenticationProvider after a successful login when the stored hash uses another
+    //bcrypt work factor than the current (calibrated) one; stores the rehashed password
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword){
+        User user=getUserEntity(userDetails.getUsername());
+        user.setPassword(newPassword);
+        saveUserDirect(user);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), newPassword, userDetails.getAuthorities());
+    }
 }
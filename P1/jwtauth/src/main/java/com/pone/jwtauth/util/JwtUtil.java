@@ -1,26 +1,61 @@
 package com.pone.jwtauth.util;
 
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtUtil {
-     private final String SECRET = "hsrnjgnsongjajobgjbajbguibuirbiwbeihbtibitwibeuitwuinjfgjnjgdfgbfdt";
-    private final long EXPIRATION = 86400000; // 1 day
+    //custom claims so the filter can build the principal without a db lookup
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    //key and parser are built once; JwtParser is immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final long expiration;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+    }
 
     public String generateToken(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
-                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    //token with the user id and authorities embedded as claims
+    public String generateToken(String username, Long userId, Collection<? extends GrantedAuthority> authorities) {
+        List<String> authorityNames = authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(AUTHORITIES_CLAIM, authorityNames)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -37,10 +72,22 @@ public class JwtUtil {
         }
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET)
+    //single parse + signature check; throws JwtException if the token is invalid or expired
+    public Claims getClaims(String token) {
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
+
+    //null for tokens issued before the uid claim existed
+    public Long extractUserId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId == null ? null : userId.longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> extractAuthorities(Claims claims) {
+        List<String> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        return authorities == null ? Collections.emptyList() : authorities;
+    }
 }
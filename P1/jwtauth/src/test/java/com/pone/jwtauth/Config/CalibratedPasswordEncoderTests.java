@@ -0,0 +1,32 @@
+package com.pone.jwtauth.Config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class CalibratedPasswordEncoderTests {
+
+    //whatever the budget, the chosen factor stays in [min, max], and never below MIN_STRENGTH
+    @Test
+    void calibrationStaysWithinBounds() {
+        //over budget at the floor: the floor is kept
+        assertEquals(10, CalibratedPasswordEncoder.calibrate(1, 10, 12).getStrength());
+        //generous budget: stops at max
+        assertEquals(11, CalibratedPasswordEncoder.calibrate(60_000, 10, 11).getStrength());
+        //configured bounds below the floor are raised to it
+        assertEquals(CalibratedPasswordEncoder.MIN_STRENGTH, CalibratedPasswordEncoder.calibrate(60_000, 4, 6).getStrength());
+        assertEquals(CalibratedPasswordEncoder.MIN_STRENGTH, CalibratedPasswordEncoder.withStrength(4).getStrength());
+    }
+
+    @Test
+    void upgradeEncodingWhenTheCostDiffers() {
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.withStrength(11);
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(10).encode("pw")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(12).encode("pw")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("pw")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.pone.jwtauth.Filter;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.pone.jwtauth.Entity.User;
+import com.pone.jwtauth.Repo.UserRepo;
+import com.pone.jwtauth.util.JwtUtil;
+
+@SpringBootTest(properties = "jwt.filter.strict-user-lookup=true")
+@AutoConfigureMockMvc
+class JwtAuthFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    //strict mode re-checks every request, so a token stops working as soon as its user is gone
+    //there are no authenticated endpoints besides /auth/**: an authenticated request to an unmapped path is a 404,
+    //an unauthenticated one is a 403
+    @Test
+    void strictModeRejectsTokenOfDeletedUser() throws Exception {
+        User user = new User();
+        user.setUsername("strict-" + UUID.randomUUID());
+        user.setPassword("unused");
+        user = userRepo.save(user);
+        String bearer = "Bearer " + jwtUtil.generateToken(user.getUsername(), user.getId(), List.of());
+
+        mockMvc.perform(get("/strict-check").header("Authorization", bearer))
+                .andExpect(status().isNotFound());
+
+        userRepo.delete(user);
+
+        mockMvc.perform(get("/strict-check").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,28 @@
+package com.pone.jwtauth.Mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.pone.jwtauth.DTO.RegisterRequestDTO;
+import com.pone.jwtauth.Entity.User;
+
+class toEntityTests {
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    @Test
+    void mapsUsernameAndHashesPasswordWithTheGivenEncoder() {
+        RegisterRequestDTO dto = new RegisterRequestDTO();
+        dto.setUsername("alice");
+        dto.setPassword("password");
+
+        User user = toEntity.mapRegisterRequestDTOtoUser(dto, passwordEncoder);
+
+        assertEquals("alice", user.getUsername());
+        assertTrue(user.getPassword().startsWith("$2a$04$"));
+        assertTrue(passwordEncoder.matches("password", user.getPassword()));
+    }
+}
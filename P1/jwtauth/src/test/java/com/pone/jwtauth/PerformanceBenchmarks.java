@@ -0,0 +1,63 @@
+package com.pone.jwtauth;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.pone.jwtauth.DTO.RegisterRequestDTO;
+import com.pone.jwtauth.Mapper.toEntity;
+
+//before/after timings for the performance changes; they only print numbers, behaviour is covered by the regular tests
+//skipped by default, run with: mvn test -Dbenchmarks=true -Dtest=PerformanceBenchmarks
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PerformanceBenchmarks {
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    @Test
+    void signupThroughputNewEncoderVersusSharedEncoder() throws Exception {
+        for (int strength : new int[] {4, 10}) {
+            int signups = strength == 4 ? 5_000 : 100;
+            PasswordEncoder shared = new BCryptPasswordEncoder(strength);
+
+            //old mapper: new encoder (and SecureRandom) per registration
+            double perCall = signupsPerSecond(signups, () -> new BCryptPasswordEncoder(strength));
+            double sharedEncoder = signupsPerSecond(signups, () -> shared);
+
+            System.out.printf("strength %d, %d threads: new encoder per call %.0f signups/s, shared encoder %.0f signups/s%n",
+                    strength, THREADS, perCall, sharedEncoder);
+        }
+    }
+
+    private static double signupsPerSecond(int signups, Supplier<PasswordEncoder> encoders) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            run(pool, signups / 4, encoders);
+            long start = System.nanoTime();
+            run(pool, signups, encoders);
+            return signups / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void run(ExecutorService pool, int signups, Supplier<PasswordEncoder> encoders) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < signups; i++) {
+            RegisterRequestDTO dto = new RegisterRequestDTO();
+            dto.setUsername("user" + i);
+            dto.setPassword("password" + i);
+            futures.add(pool.submit(() -> toEntity.mapRegisterRequestDTOtoUser(dto, encoders.get())));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.ptwo.jwtpractice.Config;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,24 +11,29 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.ptwo.jwtpractice.Filter.JwtAuthFilter;
+import com.ptwo.jwtpractice.Filter.VerifiedTokenCache;
 import com.ptwo.jwtpractice.service.UserService;
 import com.ptwo.jwtpractice.util.JwtUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 //12th file to be created after creating the filter
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtAuthFilter jwtAuthFilter;
 
-    public SecurityConfig(UserService userService,JwtUtil jwtUtil) {
-        this.jwtAuthFilter = new JwtAuthFilter(userService, jwtUtil);
+    public SecurityConfig(UserService userService, JwtUtil jwtUtil, VerifiedTokenCache verifiedTokenCache,
+                          @Value("${jwt.filter.strict-user-lookup:false}") boolean strictUserLookup) {
+        this.jwtAuthFilter = new JwtAuthFilter(userService, jwtUtil, verifiedTokenCache, strictUserLookup);
     }
 
     @Bean
@@ -67,9 +75,22 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    //one shared encoder (and SecureRandom) for the whole app
+    //the bcrypt work factor is calibrated at startup to fit password.bcrypt.target-millis per hash,
+    //or fixed to password.bcrypt.strength when calibration is off
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.calibrate:true}") boolean calibrate,
+                                           @Value("${password.bcrypt.strength:10}") int strength,
+                                           @Value("${password.bcrypt.target-millis:100}") long targetMillis,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:14}") int maxStrength,
+                                           MeterRegistry meterRegistry) {
+        CalibratedPasswordEncoder encoder = calibrate
+                ? CalibratedPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength)
+                : CalibratedPasswordEncoder.withStrength(strength);
+        log.info("BCrypt work factor: {}", encoder.getStrength());
+        encoder.bindMetrics(meterRegistry);
+        return encoder;
     }
 
     
@@ -1,5 +1,8 @@
 package com.ptwo.jwtpractice.Controller;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -9,9 +12,13 @@ import com.ptwo.jwtpractice.dto.LoginRequestDTO;
 import com.ptwo.jwtpractice.dto.RegisterDTO;
 import com.ptwo.jwtpractice.dto.RegisterResponseDTO;
 import com.ptwo.jwtpractice.service.AuthService;
+import com.ptwo.jwtpractice.service.AuthenticatedUser;
+import com.ptwo.jwtpractice.service.LoginRateLimiter;
 import com.ptwo.jwtpractice.service.UserService;
 import com.ptwo.jwtpractice.util.JwtUtil;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,22 +33,33 @@ public class UserController {
     private final AuthService authService;
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public UserController(AuthService authService, UserService userService, JwtUtil jwtUtil) {
+    public UserController(AuthService authService, UserService userService, JwtUtil jwtUtil, PasswordEncoder passwordEncoder,
+                          LoginRateLimiter loginRateLimiter) {
         this.authService = authService;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
+    //async: the request thread is released while the password is hashed
     @PostMapping("/signup")
-    public RegisterResponseDTO signup(@RequestBody RegisterDTO registerDTO) {
-        return userService.registerUser(registerDTO);
+    public CompletableFuture<RegisterResponseDTO> signup(@RequestBody RegisterDTO registerDTO) {
+        return userService.registerUser(registerDTO, passwordEncoder);
     }
 
     @PostMapping("/login")
-    public AuthResponseDTO login(@RequestBody LoginRequestDTO loginRequestDTO) {
-        String username=authService.login(loginRequestDTO);
-        String token = jwtUtil.generateToken(username);
+    public CompletableFuture<AuthResponseDTO> login(@RequestBody LoginRequestDTO loginRequestDTO, HttpServletRequest request) {
+        //throttled attempts are rejected here with 429, before any bcrypt work is queued
+        loginRateLimiter.checkLogin(request.getRemoteAddr(), loginRequestDTO.getUsername());
+        return authService.login(loginRequestDTO).thenApply(this::issueToken);
+    }
+
+    private AuthResponseDTO issueToken(AuthenticatedUser user) {
+        String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getAuthorities());
         // return new AuthResponseDTO(token);
 
         return toResponse.mapToAuthResponseDTO(token);
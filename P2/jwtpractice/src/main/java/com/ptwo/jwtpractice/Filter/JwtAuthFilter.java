@@ -1,16 +1,22 @@
 package com.ptwo.jwtpractice.Filter;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.ptwo.jwtpractice.service.AuthenticatedUser;
 import com.ptwo.jwtpractice.service.UserService;
 import com.ptwo.jwtpractice.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,9 +28,17 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final UserService userService;
     private final JwtUtil jwtUtil;
-    public JwtAuthFilter(UserService userService, JwtUtil jwtUtil) {
+    private final VerifiedTokenCache verifiedTokenCache;
+    //false: principal is built from the verified claims, no db round trip
+    //true: every request is re-checked against the users table via loadUserByUsername; verified tokens are
+    //not cached, so a deleted or changed user is rejected on the next request
+    private final boolean strictUserLookup;
+    public JwtAuthFilter(UserService userService, JwtUtil jwtUtil, VerifiedTokenCache verifiedTokenCache,
+                         @Value("${jwt.filter.strict-user-lookup:false}") boolean strictUserLookup) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.strictUserLookup = strictUserLookup;
     }
 
      @Override
@@ -43,26 +57,46 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         if(authHeader!=null && authHeader.startsWith("Bearer ")){
             token=authHeader.substring(7);
-            try{
-                if(jwtUtil.validateToken(token)){
-                    username=jwtUtil.extractUsername(token);
+            //repeat requests with an already-verified token skip parsing and the signature check
+            //(not in strict mode: a cached entry would outlive a deleted user until the token's exp)
+            Authentication cached=strictUserLookup ? null : verifiedTokenCache.get(token);
+            if(cached!=null){
+                SecurityContextHolder.getContext().setAuthentication(cached);
+            }else{
+                try{
+                    //getClaims verifies signature and expiry in one parse, throws if invalid
+                    Claims claims=jwtUtil.getClaims(token);
+                    username=claims.getSubject();
                     // Here you can set the authentication in the security context if needed
                     System.out.println("Authenticated user: " + username);
-                    UserDetails userDetails=userService.loadUserByUsername(username);
+                    UserDetails userDetails=loadPrincipal(claims);
                     UsernamePasswordAuthenticationToken authToken=new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
                     );
 
                     // Set the authentication in the security context
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-
-
+                    if(!strictUserLookup){
+                        verifiedTokenCache.put(token, authToken, claims.getExpiration());
+                    }
+                }catch(Exception e){
+                    System.out.println("Error validating token: " + e.getMessage());
                 }
-            }catch(Exception e){
-                System.out.println("Error validating token: " + e.getMessage());
             }
             
         }
         filterChain.doFilter(request, response);
      }
+
+    private UserDetails loadPrincipal(Claims claims) {
+        Long userId = jwtUtil.extractUserId(claims);
+        //tokens issued before the uid claim existed still need the db lookup
+        if (strictUserLookup || userId == null) {
+            return userService.loadUserByUsername(claims.getSubject());
+        }
+        List<SimpleGrantedAuthority> authorities = jwtUtil.extractAuthorities(claims).stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new AuthenticatedUser(userId, claims.getSubject(), "", authorities);
+    }
 }
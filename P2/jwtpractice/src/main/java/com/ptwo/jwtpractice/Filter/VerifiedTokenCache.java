@@ -0,0 +1,96 @@
+package com.ptwo.jwtpractice.Filter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+//cache of tokens that already passed signature verification
+//key: sha-256 of the raw token (raw tokens are never kept in memory)
+//value: the Authentication built for it, dropped at the token's own exp
+//size-bounded with caffeine's W-TinyLFU eviction; hit/miss/eviction counts are published as cache.* metrics
+@Component
+public class VerifiedTokenCache {
+    private final boolean enabled;
+    private final Cache<String, CachedAuthentication> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    //returns the cached Authentication or null on a miss (or when the cache is switched off)
+    public Authentication get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        CachedAuthentication cached = cache.getIfPresent(digest(token));
+        return cached == null ? null : cached.authentication;
+    }
+
+    public void put(String token, Authentication authentication, Date expiresAt) {
+        if (!enabled || expiresAt == null) {
+            return;
+        }
+        cache.put(digest(token), new CachedAuthentication(authentication, expiresAt.getTime()));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            //every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedAuthentication {
+        private final Authentication authentication;
+        private final long expiresAtMillis;
+
+        private CachedAuthentication(Authentication authentication, long expiresAtMillis) {
+            this.authentication = authentication;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    //each entry lives until its token's exp claim
+    private static final class ExpireAtTokenExpiry implements Expiry<String, CachedAuthentication> {
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
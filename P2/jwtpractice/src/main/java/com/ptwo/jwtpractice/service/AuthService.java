@@ -1,5 +1,7 @@
 package com.ptwo.jwtpractice.service;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -13,12 +15,21 @@ import com.ptwo.jwtpractice.dto.LoginRequestDTO;
 @Service
 public class AuthService {
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
-    public AuthService(AuthenticationManager authenticationManager) {
+    public AuthService(AuthenticationManager authenticationManager, PasswordHashingExecutor passwordHashingExecutor) {
         this.authenticationManager = authenticationManager;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    //bcrypt verification runs on the hashing pool, not on the request thread
+    //throws HashingCapacityExceededException right away if the pool is saturated
+    public CompletableFuture<AuthenticatedUser> login(LoginRequestDTO loginRequestDTO) {
+        return passwordHashingExecutor.submit(() -> authenticate(loginRequestDTO));
     }
 
-    public String login(LoginRequestDTO loginRequestDTO) {
+    //returns the authenticated principal (with user id) so the token can carry it as claims
+    private AuthenticatedUser authenticate(LoginRequestDTO loginRequestDTO) {
         String username = loginRequestDTO.getUsername();
         String password = loginRequestDTO.getPassword();
 
@@ -47,6 +58,6 @@ public class AuthService {
             throw new RuntimeException("Invalid credentials");
         }
 
-        return loginRequestDTO.getUsername();
+        return (AuthenticatedUser) auth.getPrincipal();
     }
 }
@@ -0,0 +1,169 @@
+package com.ptwo.jwtpractice.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+//token buckets per client ip and per username, checked before any password encoder work
+//each bucket is a single AtomicLong updated with CAS (GCRA form of a token bucket), so there are no locks
+//buckets live in size-bounded caches and are dropped after idle-seconds without a login attempt
+//refill-per-minute=0 turns that scope off; both buckets are checked before either is consumed,
+//so an attempt rejected by one scope doesn't use up a token of the other
+@Component
+public class LoginRateLimiter {
+    private final boolean enabled;
+    private final Limiter ipLimiter;
+    private final Limiter usernameLimiter;
+    private final Ticker ticker;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${login.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${login.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${login.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                            @Value("${login.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${login.rate-limit.username.refill-per-minute:5}") int usernameRefillPerMinute,
+                            @Value("${login.rate-limit.max-keys:100000}") long maxKeys,
+                            @Value("${login.rate-limit.idle-seconds:600}") long idleSeconds,
+                            MeterRegistry meterRegistry) {
+        this(enabled, ipCapacity, ipRefillPerMinute, usernameCapacity, usernameRefillPerMinute, maxKeys, idleSeconds,
+                meterRegistry, Ticker.systemTicker());
+    }
+
+    //tests pass a fake ticker to move time forward
+    LoginRateLimiter(boolean enabled, int ipCapacity, int ipRefillPerMinute, int usernameCapacity,
+                     int usernameRefillPerMinute, long maxKeys, long idleSeconds, MeterRegistry meterRegistry,
+                     Ticker ticker) {
+        this.enabled = enabled;
+        this.ticker = ticker;
+        this.ipLimiter = Limiter.of("ip", ipCapacity, ipRefillPerMinute, maxKeys, idleSeconds, meterRegistry, ticker);
+        this.usernameLimiter = Limiter.of("username", usernameCapacity, usernameRefillPerMinute, maxKeys, idleSeconds,
+                meterRegistry, ticker);
+    }
+
+    //throws LoginRateLimitedException if either bucket is empty, with the longer of the two waits
+    public void checkLogin(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        AtomicLong ipBucket = ipLimiter == null ? null : ipLimiter.bucket(clientIp == null ? "" : clientIp);
+        AtomicLong usernameBucket = usernameLimiter == null ? null
+                : usernameLimiter.bucket(username == null ? "" : username.toLowerCase(Locale.ROOT));
+        long now = ticker.read();
+        long ipWait = ipBucket == null ? 0 : ipLimiter.overshoot(ipBucket, now);
+        long usernameWait = usernameBucket == null ? 0 : usernameLimiter.overshoot(usernameBucket, now);
+        if (ipWait > 0 || usernameWait > 0) {
+            if (ipWait > 0) {
+                ipLimiter.rejected.increment();
+            }
+            if (usernameWait > 0) {
+                usernameLimiter.rejected.increment();
+            }
+            throw rateLimited(Math.max(ipWait, usernameWait));
+        }
+        //a concurrent attempt can still empty a bucket between the check and here: give the ip token back then
+        if (ipBucket != null && (ipWait = ipLimiter.tryAcquire(ipBucket, now)) > 0) {
+            ipLimiter.rejected.increment();
+            throw rateLimited(ipWait);
+        }
+        if (usernameBucket != null && (usernameWait = usernameLimiter.tryAcquire(usernameBucket, now)) > 0) {
+            if (ipBucket != null) {
+                ipLimiter.refund(ipBucket);
+            }
+            usernameLimiter.rejected.increment();
+            throw rateLimited(usernameWait);
+        }
+    }
+
+    //Retry-After is rounded up, so a client that waits that long finds a token
+    private static LoginRateLimitedException rateLimited(long waitNanos) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        return new LoginRateLimitedException((waitNanos + second - 1) / second);
+    }
+
+    //buckets currently kept in memory, both scopes (after dropping idle ones)
+    long trackedKeys() {
+        long keys = 0;
+        for (Limiter limiter : new Limiter[] { ipLimiter, usernameLimiter }) {
+            if (limiter != null) {
+                limiter.buckets.cleanUp();
+                keys += limiter.buckets.estimatedSize();
+            }
+        }
+        return keys;
+    }
+
+    private static final class Limiter {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter rejected;
+
+        private Limiter(String scope, int capacity, int refillPerMinute, long maxKeys, long idleSeconds,
+                        MeterRegistry meterRegistry, Ticker ticker) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+            this.burstNanos = intervalNanos * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                    .ticker(ticker)
+                    .build();
+            this.rejected = Counter.builder("login.rate-limit.rejected")
+                    .tag("scope", scope)
+                    .register(meterRegistry);
+        }
+
+        //null (no limit) when refillPerMinute is 0; negative settings or an empty bucket are configuration errors
+        private static Limiter of(String scope, int capacity, int refillPerMinute, long maxKeys, long idleSeconds,
+                                  MeterRegistry meterRegistry, Ticker ticker) {
+            if (refillPerMinute < 0 || capacity < 1) {
+                throw new IllegalArgumentException("login.rate-limit." + scope
+                        + " needs capacity >= 1 and refill-per-minute >= 0 (0 = off)");
+            }
+            return refillPerMinute == 0 ? null
+                    : new Limiter(scope, capacity, refillPerMinute, maxKeys, idleSeconds, meterRegistry, ticker);
+        }
+
+        private AtomicLong bucket(String key) {
+            return buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        //state is the "theoretical arrival time": when the bucket would be full again
+        //a request is allowed if taking one token keeps that time within capacity * interval of now
+        //returns how long until that is true, 0 if it already is
+        private long overshoot(AtomicLong state, long now) {
+            long next = Math.max(state.get(), now) + intervalNanos;
+            return Math.max(0, next - now - burstNanos);
+        }
+
+        //takes one token; returns 0, or the wait (and takes nothing) if the bucket is empty
+        private long tryAcquire(AtomicLong state, long now) {
+            while (true) {
+                long tat = state.get();
+                long next = Math.max(tat, now) + intervalNanos;
+                long overshoot = next - now - burstNanos;
+                if (overshoot > 0) {
+                    return overshoot;
+                }
+                if (state.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private void refund(AtomicLong state) {
+            state.addAndGet(-intervalNanos);
+        }
+    }
+}
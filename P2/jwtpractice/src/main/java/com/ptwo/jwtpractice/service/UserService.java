@@ -1,8 +1,14 @@
 package com.ptwo.jwtpractice.service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.ptwo.jwtpractice.Entity.User;
@@ -15,10 +21,15 @@ import com.ptwo.jwtpractice.dto.RegisterResponseDTO;
 //8th file to be created
 //We need to implement a interface for the user service, which will handle the business logic for user authentication and token generation. This service will be called by the controller to process login requests and generate JWT tokens.
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
-    public UserService(UserRepository userRepository) {
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Executor saveExecutor;
+    public UserService(UserRepository userRepository, PasswordHashingExecutor passwordHashingExecutor,
+                       @Qualifier("applicationTaskExecutor") Executor saveExecutor) {
         this.userRepository = userRepository;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.saveExecutor = saveExecutor;
     }
 
    
@@ -26,17 +37,20 @@ public class UserService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String UsernameOrEmail) throws UsernameNotFoundException {
         User user=userRepository.findByUsername(UsernameOrEmail).orElseThrow(()->new UsernameNotFoundException("User not found with username: "+UsernameOrEmail));
-        return new org.springframework.security.core.userdetails.User(
+        return new AuthenticatedUser(
+            user.getId(),
             user.getUsername(),
             user.getPassword(),
             new java.util.ArrayList<>()
         );
     }
 
-    public RegisterResponseDTO registerUser(RegisterDTO registerDTO){
+    //the mapper hashes the password, so it runs on the hashing pool (HashingCapacityExceededException if saturated)
+    //the insert runs on the application task executor, so a bcrypt worker isn't held for the db round trip
+    public CompletableFuture<RegisterResponseDTO> registerUser(RegisterDTO registerDTO, PasswordEncoder passwordEncoder){
         if(userRepository.findByUsername(registerDTO.getUsername()).isPresent()){
             System.out.println("Username already exists: " + registerDTO.getUsername());
-            return new RegisterResponseDTO(null, null, "Username already exists");
+            return CompletableFuture.completedFuture(new RegisterResponseDTO(null, null, "Username already exists"));
         }
 
         //map dto to entity
@@ -45,11 +59,11 @@ public class UserService implements UserDetailsService {
         // user.setPassword(registerDTO.getPassword());
 
         //at this point a better way would be to create a mapper class to map dto to entity and vice versa but for simplicity we are doing it here
-        User user=toEntity.mapRegisterRequestDTOToUser(registerDTO);
-        userRepository.save(user);
-        
-        RegisterResponseDTO responseDTO=toResponse.mapToRegisterResponseDTO(user, "User registered successfully");
-        return responseDTO;
+        return passwordHashingExecutor.submit(() -> toEntity.mapRegisterRequestDTOToUser(registerDTO, passwordEncoder))
+                .thenApplyAsync(user -> {
+                    userRepository.save(user);
+                    return toResponse.mapToRegisterResponseDTO(user, "User registered successfully");
+                }, saveExecutor);
     }
 
     
@@ -62,5 +76,15 @@ public class UserService implements UserDetailsService {
         return userRepository.findByUsername(username).orElseThrow(()->new RuntimeException("User not found"));
     }
 
+    //called by DaoAuthenticationProvider after a successful login when the stored hash uses another
+    //bcrypt work factor than the current (calibrated) one; stores the rehashed password
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword){
+        User user=getUserEntity(userDetails.getUsername());
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), newPassword, userDetails.getAuthorities());
+    }
+
 
 }
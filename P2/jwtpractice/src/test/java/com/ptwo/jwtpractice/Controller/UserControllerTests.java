@@ -0,0 +1,92 @@
+package com.ptwo.jwtpractice.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.ptwo.jwtpractice.Repo.UserRepository;
+import com.ptwo.jwtpractice.service.PasswordHashingExecutor;
+
+
+//one hashing worker and one queue slot, so two blocked tasks saturate the pool
+@SpringBootTest(properties = { "password.hashing.pool-size=1", "password.hashing.queue-capacity=1",
+        "password.hashing.retry-after-seconds=1" })
+@AutoConfigureMockMvc
+class UserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @MockitoSpyBean
+    private UserRepository userRepo;
+
+    //the insert runs after hashing but not on the hashing worker
+    @Test
+    void signupSavesOffTheHashingPool() throws Exception {
+        AtomicReference<String> saveThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            saveThread.set(Thread.currentThread().getName());
+            //the spy wraps a jdk proxy, so "real method" means its delegating default answer
+            return mockingDetails(userRepo).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+        }).when(userRepo).save(any());
+
+        String username = "signup-" + UUID.randomUUID();
+        MvcResult pending = mockMvc.perform(post("/api/v1/auth/signup").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"pw\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk());
+
+        assertTrue(userRepo.findByUsername(username).isPresent());
+        assertNotNull(saveThread.get());
+        assertFalse(saveThread.get().startsWith("password-hashing-"), saveThread.get());
+    }
+
+    @Test
+    void fullHashingQueueAnswers503WithRetryAfter() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHashingExecutor.submit(() -> {
+            running.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        });
+        try {
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            //takes the only queue slot
+            passwordHashingExecutor.submit(() -> release.await(30, TimeUnit.SECONDS));
+
+            mockMvc.perform(post("/api/v1/auth/signup").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"full-" + UUID.randomUUID() + "\",\"password\":\"pw\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ptwo.jwtpractice.Filter;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.ptwo.jwtpractice.Entity.User;
+import com.ptwo.jwtpractice.Repo.UserRepository;
+import com.ptwo.jwtpractice.util.JwtUtil;
+
+@SpringBootTest(properties = "jwt.filter.strict-user-lookup=true")
+@AutoConfigureMockMvc
+class JwtAuthFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    //strict mode re-checks every request, so a token stops working as soon as its user is gone
+    @Test
+    void strictModeRejectsTokenOfDeletedUser() throws Exception {
+        User user = new User();
+        user.setUsername("strict-" + UUID.randomUUID());
+        user.setPassword("unused");
+        user = userRepo.save(user);
+        String bearer = "Bearer " + jwtUtil.generateToken(user.getUsername(), user.getId(), List.of());
+
+        mockMvc.perform(get("/test").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        userRepo.delete(user);
+
+        mockMvc.perform(get("/test").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+    }
+}
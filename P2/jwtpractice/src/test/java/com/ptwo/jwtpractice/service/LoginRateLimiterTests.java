@@ -0,0 +1,110 @@
+package com.ptwo.jwtpractice.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginRateLimiterTests {
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    //ip: burst 2, username: burst 3, both refill one token every 10s; idle buckets are dropped after 60s
+    private LoginRateLimiter limiter(int ipRefillPerMinute, int usernameRefillPerMinute) {
+        return new LoginRateLimiter(true, 2, ipRefillPerMinute, 3, usernameRefillPerMinute, 1000, 60, meterRegistry,
+                nanos::get);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    void burstUpToCapacityThenRejected() {
+        LoginRateLimiter limiter = limiter(6, 6);
+        for (int i = 0; i < 3; i++) {
+            //a new ip for each attempt, so only the username bucket runs out
+            limiter.checkLogin("10.0.0." + i, "Alice");
+        }
+        //usernames are case-insensitive
+        assertThrows(LoginRateLimitedException.class, () -> limiter.checkLogin("10.0.0.9", "alice"));
+        assertEquals(1, meterRegistry.get("login.rate-limit.rejected").tag("scope", "username").counter().count());
+    }
+
+    @Test
+    void refillAddsOneTokenPerInterval() {
+        LoginRateLimiter limiter = limiter(6, 6);
+        limiter.checkLogin("10.0.0.1", "bob");
+        limiter.checkLogin("10.0.0.1", "bob");
+        assertThrows(LoginRateLimitedException.class, () -> limiter.checkLogin("10.0.0.1", "bob"));
+
+        advanceSeconds(9);
+        assertThrows(LoginRateLimitedException.class, () -> limiter.checkLogin("10.0.0.1", "bob"));
+        advanceSeconds(1);
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.1", "bob"));
+        assertThrows(LoginRateLimitedException.class, () -> limiter.checkLogin("10.0.0.1", "bob"));
+    }
+
+    @Test
+    void retryAfterIsTheWaitForTheNextToken() {
+        LoginRateLimiter limiter = limiter(6, 6);
+        limiter.checkLogin("10.0.0.1", "carol");
+        limiter.checkLogin("10.0.0.1", "carol");
+        advanceSeconds(3);
+        LoginRateLimitedException e = assertThrows(LoginRateLimitedException.class,
+                () -> limiter.checkLogin("10.0.0.1", "carol"));
+        assertEquals(7, e.getRetryAfterSeconds());
+
+        //waiting Retry-After seconds is enough
+        advanceSeconds(e.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.1", "carol"));
+    }
+
+    //an attempt rejected for its username must not use up the ip's tokens, and the other way round
+    @Test
+    void bothBucketsAreCheckedBeforeEitherIsConsumed() {
+        LoginRateLimiter limiter = limiter(6, 6);
+        for (int i = 0; i < 3; i++) {
+            limiter.checkLogin("10.0.1." + i, "dave");
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThrows(LoginRateLimitedException.class, () -> limiter.checkLogin("10.0.2.1", "dave"));
+        }
+        limiter.checkLogin("10.0.2.1", "erin");
+        limiter.checkLogin("10.0.2.1", "frank");
+
+        assertThrows(LoginRateLimitedException.class, () -> limiter.checkLogin("10.0.2.1", "grace"));
+        limiter.checkLogin("10.0.3.1", "grace");
+        limiter.checkLogin("10.0.3.2", "grace");
+        limiter.checkLogin("10.0.3.3", "grace");
+    }
+
+    @Test
+    void zeroRefillTurnsTheScopeOff() {
+        LoginRateLimiter limiter = limiter(0, 6);
+        for (int i = 0; i < 50; i++) {
+            limiter.checkLogin("10.0.0.1", "user" + i);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoginRateLimiter(true, 0, 6, 3, 6, 1000, 60, meterRegistry, nanos::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoginRateLimiter(true, 2, -1, 3, 6, 1000, 60, meterRegistry, nanos::get));
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        LoginRateLimiter limiter = limiter(6, 6);
+        limiter.checkLogin("10.0.0.1", "heidi");
+        limiter.checkLogin("10.0.0.2", "ivan");
+        assertEquals(4, limiter.trackedKeys());
+
+        advanceSeconds(61);
+        assertEquals(0, limiter.trackedKeys());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ptwo.jwtpractice.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.ptwo.jwtpractice.dto.LoginRequestDTO;
+import com.ptwo.jwtpractice.Entity.User;
+import com.ptwo.jwtpractice.Repo.UserRepository;
+
+@SpringBootTest(properties = { "password.bcrypt.calibrate=false", "password.bcrypt.strength=11" })
+class UserServiceTests {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    //a hash with another cost is rehashed at the current one by a successful login (UserDetailsPasswordService)
+    @Test
+    void loginRehashesPasswordsWithAnotherCost() throws Exception {
+        String username = "rehash-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(new BCryptPasswordEncoder(10).encode("secret-pw"));
+        userRepo.save(user);
+
+        LoginRequestDTO login = new LoginRequestDTO();
+        login.setUsername(username);
+        login.setPassword("secret-pw");
+        authService.login(login).get();
+
+        String stored = userRepo.findByUsername(username).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$11$"), stored);
+        assertTrue(passwordEncoder.matches("secret-pw", stored));
+    }
+}
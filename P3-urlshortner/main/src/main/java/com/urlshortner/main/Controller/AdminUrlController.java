@@ -0,0 +1,30 @@
+package com.urlshortner.main.Controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.urlshortner.main.dto.HotShortCodeDTO;
+import com.urlshortner.main.service.HotShortCodes;
+
+//admin only (see SecurityConfig)
+@RestController
+@RequestMapping("/admin/urls")
+public class AdminUrlController {
+    private static final int MAX_LIMIT = 100;
+
+    private final HotShortCodes hotShortCodes;
+
+    public AdminUrlController(HotShortCodes hotShortCodes) {
+        this.hotShortCodes = hotShortCodes;
+    }
+
+    //hottest short codes by recent (decayed) clicks
+    @GetMapping("/hot")
+    public List<HotShortCodeDTO> hot(@RequestParam(defaultValue = "20") int limit) {
+        return hotShortCodes.top(Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -0,0 +1,28 @@
+package com.urlshortner.main.Controller;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.urlshortner.main.dto.RegisterDTO;
+import com.urlshortner.main.dto.RegisterResponseDTO;
+import com.urlshortner.main.service.UserService;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+
+    public AuthController(UserService userService, PasswordEncoder passwordEncoder) {
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @PostMapping("/register")
+    public RegisterResponseDTO register(@RequestBody RegisterDTO request) {
+        return userService.registerUser(request, passwordEncoder);
+    }
+}
@@ -0,0 +1,59 @@
+package com.urlshortner.main.Controller;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.urlshortner.main.service.ClickCounter;
+import com.urlshortner.main.service.ClickRollups;
+import com.urlshortner.main.service.HotShortCodes;
+import com.urlshortner.main.service.RedirectCache;
+import com.urlshortner.main.service.RedirectTarget;
+
+//the hot path: GET /{shortCode} -> 301/302 to the original url
+@RestController
+public class RedirectController {
+    private final RedirectCache redirectCache;
+    private final ClickCounter clickCounter;
+    private final ClickRollups clickRollups;
+    private final HotShortCodes hotShortCodes;
+    private final HttpStatus redirectStatus;
+    private final CacheControl cacheControl;
+
+    public RedirectController(RedirectCache redirectCache, ClickCounter clickCounter, ClickRollups clickRollups,
+                              HotShortCodes hotShortCodes,
+                              @Value("${urls.redirect.permanent:false}") boolean permanent,
+                              @Value("${urls.redirect.max-age-seconds:0}") long maxAgeSeconds) {
+        this.redirectCache = redirectCache;
+        this.clickCounter = clickCounter;
+        this.clickRollups = clickRollups;
+        this.hotShortCodes = hotShortCodes;
+        this.redirectStatus = permanent ? HttpStatus.MOVED_PERMANENTLY : HttpStatus.FOUND;
+        this.cacheControl = maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic()
+                : CacheControl.noCache();
+    }
+
+    //base62 codes only, so /favicon.ico, /error etc. never land here
+    @GetMapping("/{shortCode:[0-9A-Za-z]{1,16}}")
+    public ResponseEntity<Void> redirect(@PathVariable String shortCode) {
+        RedirectTarget target = redirectCache.find(shortCode);
+        if (target == null) {
+            return ResponseEntity.notFound().build();
+        }
+        clickCounter.record(target.urlId());
+        clickRollups.record(target.urlId());
+        hotShortCodes.record(shortCode);
+        return ResponseEntity.status(redirectStatus)
+                .location(URI.create(target.originalUrl()))
+                .cacheControl(cacheControl)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.urlshortner.main.Controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.urlshortner.main.dto.ClickCountDTO;
+import com.urlshortner.main.dto.ShortenRequestDTO;
+import com.urlshortner.main.dto.ShortenResponseDTO;
+import com.urlshortner.main.dto.UrlStatsDTO;
+import com.urlshortner.main.service.AuthenticatedUser;
+import com.urlshortner.main.service.UrlService;
+
+@RestController
+@RequestMapping("/urls")
+public class UrlController {
+    private final UrlService urlService;
+
+    public UrlController(UrlService urlService) {
+        this.urlService = urlService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ShortenResponseDTO> shorten(@RequestBody ShortenRequestDTO request,
+                                                      @AuthenticationPrincipal AuthenticatedUser user) {
+        //200 with the existing code when the url was already shortened by this user
+        ShortenResponseDTO response = urlService.shorten(request, user);
+        return ResponseEntity.status(response.isCreated() ? HttpStatus.CREATED : HttpStatus.OK).body(response);
+    }
+
+    //JSON array of {"originalUrl": ...}, at most urls.batch.max-size; results are in the same order
+    @PostMapping("/batch")
+    public ResponseEntity<List<ShortenResponseDTO>> shortenBatch(@RequestBody List<ShortenRequestDTO> requests,
+                                                                 @AuthenticationPrincipal AuthenticatedUser user) {
+        //201 if at least one url was new, 200 if all of them already existed (as for a single url)
+        List<ShortenResponseDTO> results = urlService.shortenBatch(requests, user);
+        boolean created = results.stream().anyMatch(ShortenResponseDTO::isCreated);
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK).body(results);
+    }
+
+    @GetMapping("/{shortCode}/clicks")
+    public ClickCountDTO clicks(@PathVariable String shortCode, @AuthenticationPrincipal AuthenticatedUser user) {
+        return urlService.getClicks(shortCode, user);
+    }
+
+    //from/to are ISO-8601 instants, e.g. ?from=2025-01-01T00:00:00Z&granularity=hour
+    @GetMapping("/{shortCode}/stats")
+    public UrlStatsDTO stats(@PathVariable String shortCode,
+                             @RequestParam(required = false) Instant from,
+                             @RequestParam(required = false) Instant to,
+                             @RequestParam(defaultValue = "minute") String granularity,
+                             @AuthenticationPrincipal AuthenticatedUser user) {
+        return urlService.getStats(shortCode, from, to, granularity, user);
+    }
+}
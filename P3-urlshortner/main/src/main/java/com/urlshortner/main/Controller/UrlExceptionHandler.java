@@ -0,0 +1,35 @@
+package com.urlshortner.main.Controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.urlshortner.main.service.InvalidBatchException;
+import com.urlshortner.main.service.InvalidStatsQueryException;
+import com.urlshortner.main.service.InvalidUrlException;
+import com.urlshortner.main.service.UrlNotFoundException;
+
+@RestControllerAdvice
+public class UrlExceptionHandler {
+
+    @ExceptionHandler(InvalidUrlException.class)
+    public ResponseEntity<String> handleInvalidUrl(InvalidUrlException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<String> handleInvalidBatch(InvalidBatchException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidStatsQueryException.class)
+    public ResponseEntity<String> handleInvalidStatsQuery(InvalidStatsQueryException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(UrlNotFoundException.class)
+    public ResponseEntity<String> handleUrlNotFound(UrlNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+}
@@ -0,0 +1,66 @@
+package com.urlshortner.main.Entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+//clicks of one url in one time bucket ([bucketStart, bucketStart + bucketSeconds), epoch seconds)
+//rows are insert-only and written by ClickRollups with jdbc batches; a bucket can have several rows
+//(one per node, or a partial one written at shutdown), so readers sum them per bucket
+@Entity
+@Table(name = "url_click_rollups",
+        indexes = @Index(name = "ix_url_click_rollups_url_bucket", columnList = "url_id, bucket_seconds, bucket_start"))
+public class ClickRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "url_id", nullable = false)
+    private long urlId;
+
+    //60 = minute bucket, 3600 = hour bucket
+    @Column(name = "bucket_seconds", nullable = false)
+    private int bucketSeconds;
+
+    @Column(name = "bucket_start", nullable = false)
+    private long bucketStart;
+
+    @Column(nullable = false)
+    private long clicks;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public long getUrlId() {
+        return urlId;
+    }
+    public void setUrlId(long urlId) {
+        this.urlId = urlId;
+    }
+    public int getBucketSeconds() {
+        return bucketSeconds;
+    }
+    public void setBucketSeconds(int bucketSeconds) {
+        this.bucketSeconds = bucketSeconds;
+    }
+    public long getBucketStart() {
+        return bucketStart;
+    }
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    public long getClicks() {
+        return clicks;
+    }
+    public void setClicks(long clicks) {
+        this.clicks = clicks;
+    }
+}
@@ -0,0 +1,48 @@
+package com.urlshortner.main.Entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+//one leased block of short-code numbers: [id * blockSize, (id + 1) * blockSize)
+//the sequence makes leases unique across nodes; rows are only an audit trail of who leased what
+@Entity
+@Table(name = "short_code_blocks")
+public class ShortCodeBlock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "short_code_block_seq")
+    @SequenceGenerator(name = "short_code_block_seq", sequenceName = "short_code_block_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "block_size", nullable = false)
+    private int blockSize;
+
+    @Column(name = "leased_at", nullable = false)
+    private Instant leasedAt;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public int getBlockSize() {
+        return blockSize;
+    }
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+    public Instant getLeasedAt() {
+        return leasedAt;
+    }
+    public void setLeasedAt(Instant leasedAt) {
+        this.leasedAt = leasedAt;
+    }
+}
@@ -1,29 +1,54 @@
 package com.urlshortner.main.Entity;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "urls")
+//unique index on short_code: the redirect lookup (findByShortCode) and the uniqueness guarantee of codes
+//unique index on (user_id, url_hash): finds a url the user already shortened, and keeps it from being stored twice
+@Table(name = "urls", indexes = {
+        @Index(name = "ux_urls_short_code", columnList = "short_code", unique = true),
+        @Index(name = "ux_urls_user_url_hash", columnList = "user_id, url_hash", unique = true)
+})
 public class Url {
     
+    //pooled sequence instead of IDENTITY: ids are known before the insert, so hibernate can batch the inserts
+    //(one sequence call per 50 rows)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "urls_seq")
+    @SequenceGenerator(name = "urls_seq", sequenceName = "urls_seq", allocationSize = 50)
     private Long id;
 
+    //UrlService.MAX_URL_LENGTH
+    @Column(name = "original_url", length = 2048)
     private String originalUrl;
 
+    @Column(name = "short_code")
     private String shortCode;
 
+    //sha-256 of the normalized originalUrl (UrlNormalizer)
+    @Column(name = "url_hash", length = 32)
+    private byte[] urlHash;
+
     @ManyToOne
     @JoinColumn(name = "user_id")   // FOREIGN KEY
     private User user;
 
+    //only ever changed by ClickCounter's "clicks = clicks + ?" batches, never written back from the entity
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long clicks;
+
 
     // Getters and Setters
 
@@ -45,10 +70,22 @@ public class Url {
     public void setShortCode(String shortCode) {
         this.shortCode = shortCode;
     }   
+    public byte[] getUrlHash() {
+        return urlHash;
+    }
+    public void setUrlHash(byte[] urlHash) {
+        this.urlHash = urlHash;
+    }
     public User getUser() {
         return user;
     }
     public void setUser(User user) {
         this.user = user;
     }
+    public long getClicks() {
+        return clicks;
+    }
+    public void setClicks(long clicks) {
+        this.clicks = clicks;
+    }
 }
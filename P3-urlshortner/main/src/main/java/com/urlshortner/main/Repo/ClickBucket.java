@@ -0,0 +1,8 @@
+package com.urlshortner.main.Repo;
+
+//one bucket of a stats series: start in epoch seconds and the summed clicks of its rows
+public interface ClickBucket {
+    long getBucketStart();
+
+    long getClicks();
+}
@@ -0,0 +1,19 @@
+package com.urlshortner.main.Repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.urlshortner.main.Entity.ClickRollup;
+
+@Repository
+public interface ClickRollupRepository extends JpaRepository<ClickRollup, Long> {
+    //range scan on ix_url_click_rollups_url_bucket; reads at most (buckets in range) x (rows per bucket)
+    @Query("select r.bucketStart as bucketStart, sum(r.clicks) as clicks from ClickRollup r"
+            + " where r.urlId = :urlId and r.bucketSeconds = :bucketSeconds"
+            + " and r.bucketStart >= :from and r.bucketStart < :to"
+            + " group by r.bucketStart order by r.bucketStart")
+    List<ClickBucket> findBuckets(long urlId, int bucketSeconds, long from, long to);
+}
@@ -0,0 +1,12 @@
+package com.urlshortner.main.Repo;
+
+//projection for the dedup lookup: the fields a shorten response needs, without loading the user
+public interface OwnedUrl {
+    long getId();
+
+    String getShortCode();
+
+    String getOriginalUrl();
+
+    byte[] getUrlHash();
+}
@@ -0,0 +1,14 @@
+package com.urlshortner.main.Repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.urlshortner.main.Entity.ShortCodeBlock;
+
+@Repository
+public interface ShortCodeBlockRepository extends JpaRepository<ShortCodeBlock, Long> {
+    //highest lease of any node; null before the first one
+    @Query("select max(b.id) from ShortCodeBlock b")
+    Long findMaxId();
+}
@@ -1,13 +1,36 @@
 package com.urlshortner.main.Repo;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.urlshortner.main.Entity.Url;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface UrlRepository extends JpaRepository<Url,Long> {
     Optional<Url> findByShortCode(String shortCode);
+
+    //both use ux_urls_user_url_hash; u.user.id is the foreign key column, no join
+    @Query("select u.id as id, u.shortCode as shortCode, u.originalUrl as originalUrl, u.urlHash as urlHash"
+            + " from Url u where u.user.id = :userId and u.urlHash = :urlHash")
+    Optional<OwnedUrl> findOwnedByHash(Long userId, byte[] urlHash);
+
+    @Query("select u.id as id, u.shortCode as shortCode, u.originalUrl as originalUrl, u.urlHash as urlHash"
+            + " from Url u where u.user.id = :userId and u.urlHash in :urlHashes")
+    List<OwnedUrl> findOwnedByHashes(Long userId, Collection<byte[]> urlHashes);
+
+    //every short code, read with a cursor (1000 rows per fetch); must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.shortCode from Url u")
+    Stream<String> streamAllShortCodes();
 }
@@ -0,0 +1,29 @@
+package com.urlshortner.main.dto;
+
+import java.time.Instant;
+
+public class ClickBucketDTO {
+    private Instant start;
+    private long clicks;
+
+    public ClickBucketDTO(Instant start, long clicks) {
+        this.start = start;
+        this.clicks = clicks;
+    }
+    public ClickBucketDTO() {
+    }
+
+    // Getters and Setters
+    public Instant getStart() {
+        return start;
+    }
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+    public long getClicks() {
+        return clicks;
+    }
+    public void setClicks(long clicks) {
+        this.clicks = clicks;
+    }
+}
@@ -0,0 +1,43 @@
+package com.urlshortner.main.dto;
+
+public class ClickCountDTO {
+    private String shortCode;
+    private long persisted;
+    private long pending;
+    private long clicks;
+
+    public ClickCountDTO(String shortCode, long persisted, long pending) {
+        this.shortCode = shortCode;
+        this.persisted = persisted;
+        this.pending = pending;
+        this.clicks = persisted + pending;
+    }
+    public ClickCountDTO() {
+    }
+
+    // Getters and Setters
+    public String getShortCode() {
+        return shortCode;
+    }
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+    public long getPersisted() {
+        return persisted;
+    }
+    public void setPersisted(long persisted) {
+        this.persisted = persisted;
+    }
+    public long getPending() {
+        return pending;
+    }
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+    public long getClicks() {
+        return clicks;
+    }
+    public void setClicks(long clicks) {
+        this.clicks = clicks;
+    }
+}
@@ -0,0 +1,27 @@
+package com.urlshortner.main.dto;
+
+public class HotShortCodeDTO {
+    private String shortCode;
+    private long estimatedClicks;
+
+    public HotShortCodeDTO(String shortCode, long estimatedClicks) {
+        this.shortCode = shortCode;
+        this.estimatedClicks = estimatedClicks;
+    }
+    public HotShortCodeDTO() {
+    }
+
+    // Getters and Setters
+    public String getShortCode() {
+        return shortCode;
+    }
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+    public long getEstimatedClicks() {
+        return estimatedClicks;
+    }
+    public void setEstimatedClicks(long estimatedClicks) {
+        this.estimatedClicks = estimatedClicks;
+    }
+}
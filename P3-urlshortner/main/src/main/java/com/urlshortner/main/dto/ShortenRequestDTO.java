@@ -0,0 +1,13 @@
+package com.urlshortner.main.dto;
+
+public class ShortenRequestDTO {
+    private String originalUrl;
+
+    // Getters and Setters
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+    public void setOriginalUrl(String originalUrl) {
+        this.originalUrl = originalUrl;
+    }
+}
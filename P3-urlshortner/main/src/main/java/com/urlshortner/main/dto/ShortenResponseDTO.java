@@ -0,0 +1,44 @@
+package com.urlshortner.main.dto;
+
+public class ShortenResponseDTO {
+    private Long id;
+    private String shortCode;
+    private String originalUrl;
+    //false when the user had already shortened this url and its existing code is returned
+    private boolean created;
+
+    public ShortenResponseDTO(Long id, String shortCode, String originalUrl, boolean created) {
+        this.id = id;
+        this.shortCode = shortCode;
+        this.originalUrl = originalUrl;
+        this.created = created;
+    }
+    public ShortenResponseDTO() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getShortCode() {
+        return shortCode;
+    }
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+    public void setOriginalUrl(String originalUrl) {
+        this.originalUrl = originalUrl;
+    }
+    public boolean isCreated() {
+        return created;
+    }
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+}
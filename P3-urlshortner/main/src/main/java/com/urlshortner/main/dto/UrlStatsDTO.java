@@ -0,0 +1,55 @@
+package com.urlshortner.main.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+//click series of one short url; buckets without clicks are left out
+public class UrlStatsDTO {
+    private String shortCode;
+    private String granularity;
+    private Instant from;
+    private Instant to;
+    private List<ClickBucketDTO> buckets;
+
+    public UrlStatsDTO(String shortCode, String granularity, Instant from, Instant to, List<ClickBucketDTO> buckets) {
+        this.shortCode = shortCode;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+    }
+    public UrlStatsDTO() {
+    }
+
+    // Getters and Setters
+    public String getShortCode() {
+        return shortCode;
+    }
+    public void setShortCode(String shortCode) {
+        this.shortCode = shortCode;
+    }
+    public String getGranularity() {
+        return granularity;
+    }
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+    public Instant getFrom() {
+        return from;
+    }
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+    public Instant getTo() {
+        return to;
+    }
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+    public List<ClickBucketDTO> getBuckets() {
+        return buckets;
+    }
+    public void setBuckets(List<ClickBucketDTO> buckets) {
+        this.buckets = buckets;
+    }
+}
@@ -0,0 +1,163 @@
+package com.urlshortner.main.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+//click counts per url, counted in memory and written to urls.clicks in the background
+//a redirect only increments a LongAdder (striped, no lock, no database); every flush-interval-ms one thread
+//drains all adders and writes the deltas as one jdbc batch of "clicks = clicks + ?" updates, one row per clicked url
+//
+//loss window: clicks not yet flushed are lost if the process dies without a shutdown (kill -9, oom, power),
+//i.e. at most flush-interval-ms of clicks; a normal shutdown flushes first. A failed flush keeps its deltas
+//in memory and retries them with the next one
+@Component
+public class ClickCounter {
+    private static final Logger log = LoggerFactory.getLogger(ClickCounter.class);
+    private static final String UPDATE_CLICKS = "update urls set clicks = clicks + ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    //adders removed from pending by the last flush: a redirect may still have incremented one after it was
+    //drained, so they are drained once more by the next flush
+    private final ConcurrentHashMap<Long, LongAdder> retired = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter failureCounter;
+
+    public ClickCounter(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${urls.clicks.flush-interval-ms:1000}") long flushIntervalMillis,
+                        @Value("${urls.clicks.batch-size:500}") int batchSize,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("urls.clicks.flush")
+                .description("time to write one batch of click deltas")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("urls.clicks.flushed")
+                .description("clicks written to the database")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("urls.clicks.flush.failures")
+                .register(meterRegistry);
+        Gauge.builder("urls.clicks.pending.urls", pending, Map::size)
+                .description("urls with clicks not yet written")
+                .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void record(long urlId) {
+        LongAdder adder = pending.get(urlId);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(urlId, id -> new LongAdder());
+        }
+        adder.increment();
+        //a flush may have dropped this adder as idle between the get and the increment, and the retired drain
+        //may already be past it: take the late clicks back (sumThenReset hands each one to the flush or to us,
+        //never both) and add them to the current adder
+        LongAdder current;
+        while ((current = pending.get(urlId)) != adder) {
+            long late = adder.sumThenReset();
+            if (late == 0) {
+                return;
+            }
+            adder = current != null ? current : pending.computeIfAbsent(urlId, id -> new LongAdder());
+            adder.add(late);
+        }
+    }
+
+    //clicks counted but not written yet; a read during a flush can miss the batch being written
+    public long pending(long urlId) {
+        LongAdder adder = pending.get(urlId);
+        LongAdder retiredAdder = retired.get(urlId);
+        return (adder == null ? 0 : adder.sum()) + (retiredAdder == null ? 0 : retiredAdder.sum());
+    }
+
+    //one thread at a time (scheduler, shutdown, tests)
+    synchronized void flush() {
+        //sorted by id, so concurrent flushes from several nodes lock rows in the same order
+        Map<Long, Long> deltas = new TreeMap<>();
+        retired.forEach((urlId, adder) -> drain(urlId, adder, deltas));
+        retired.clear();
+        pending.forEach((urlId, adder) -> {
+            if (!drain(urlId, adder, deltas) && pending.remove(urlId, adder)) {
+                //idle since the last flush: drop it so pending only holds recently clicked urls
+                retired.put(urlId, adder);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((urlId, delta) -> rows.add(new Object[] {delta, urlId}));
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(
+                    status -> jdbcTemplate.batchUpdate(UPDATE_CLICKS, rows, batchSize, (ps, row) -> {
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setLong(2, (Long) row[1]);
+                    })));
+            flushedCounter.increment(deltas.values().stream().mapToLong(Long::longValue).sum());
+        } catch (RuntimeException e) {
+            //put the deltas back, they go out with the next flush
+            deltas.forEach((urlId, delta) -> pending.computeIfAbsent(urlId, id -> new LongAdder()).add(delta));
+            throw e;
+        }
+    }
+
+    //sumThenReset takes each stripe with getAndSet, so concurrent increments land in this or the next flush
+    private static boolean drain(Long urlId, LongAdder adder, Map<Long, Long> deltas) {
+        long delta = adder.sumThenReset();
+        if (delta == 0) {
+            return false;
+        }
+        deltas.merge(urlId, delta, Long::sum);
+        return true;
+    }
+
+    //an exception would cancel the scheduled task; every failed flush is counted and logged with its cause
+    void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.error("Click flush failed, {} urls kept for the next one", pending.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+}
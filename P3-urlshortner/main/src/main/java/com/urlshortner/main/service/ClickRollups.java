@@ -0,0 +1,174 @@
+package com.urlshortner.main.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.urlshortner.main.Repo.ClickBucket;
+import com.urlshortner.main.Repo.ClickRollupRepository;
+import com.urlshortner.main.dto.ClickBucketDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+//per-minute and per-hour click series, aggregated in memory and written as one row per closed bucket
+//a redirect increments the LongAdder of its current minute and hour bucket; every flush-interval-ms the buckets
+//that ended more than grace-seconds ago are removed and inserted into url_click_rollups as one jdbc batch
+//so the table grows with (active urls x buckets), not with clicks, and a range query reads one row per bucket
+//
+//loss window: a crash (not a normal shutdown, which writes the open buckets too) loses the buckets still in
+//memory, i.e. the current minute plus up to flush-interval-ms for minutes, and the current hour for hours
+@Component
+public class ClickRollups {
+    private static final Logger log = LoggerFactory.getLogger(ClickRollups.class);
+    private static final String INSERT_ROLLUP =
+            "insert into url_click_rollups (url_id, bucket_seconds, bucket_start, clicks) values (?, ?, ?, ?)";
+    private static final StatsGranularity[] GRANULARITIES = StatsGranularity.values();
+
+    private final ClickRollupRepository clickRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long graceSeconds;
+    private final long flushIntervalSeconds;
+    private final ConcurrentHashMap<BucketKey, LongAdder> open = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Counter writtenCounter;
+    private final Counter failureCounter;
+
+    public ClickRollups(ClickRollupRepository clickRollupRepository,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${urls.stats.flush-interval-ms:10000}") long flushIntervalMillis,
+                        @Value("${urls.stats.grace-seconds:5}") long graceSeconds,
+                        MeterRegistry meterRegistry) {
+        this.clickRollupRepository = clickRollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.graceSeconds = graceSeconds;
+        this.flushIntervalSeconds = TimeUnit.MILLISECONDS.toSeconds(flushIntervalMillis) + 1;
+        this.writtenCounter = Counter.builder("urls.stats.rollups.written")
+                .description("bucket rows inserted into url_click_rollups")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("urls.stats.flush.failures")
+                .register(meterRegistry);
+        Gauge.builder("urls.stats.open.buckets", open, Map::size)
+                .description("buckets aggregated in memory, not written yet")
+                .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-rollup-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void record(long urlId) {
+        long now = Instant.now().getEpochSecond();
+        for (StatsGranularity granularity : GRANULARITIES) {
+            BucketKey key = new BucketKey(urlId, granularity, granularity.bucketStart(now));
+            LongAdder adder = open.get(key);
+            if (adder == null) {
+                adder = open.computeIfAbsent(key, k -> new LongAdder());
+            }
+            adder.increment();
+        }
+    }
+
+    //buckets with clicks in [from, to) (epoch seconds, bucket aligned): written rows plus the ones still in memory
+    public List<ClickBucketDTO> series(long urlId, StatsGranularity granularity, long from, long to) {
+        Map<Long, Long> buckets = new TreeMap<>();
+        for (ClickBucket bucket : clickRollupRepository.findBuckets(urlId, granularity.getSeconds(), from, to)) {
+            buckets.put(bucket.getBucketStart(), bucket.getClicks());
+        }
+        //only the last few buckets can still be in memory, so probe those keys instead of scanning the map
+        long now = Instant.now().getEpochSecond();
+        long oldestOpen = granularity.bucketStart(now - granularity.getSeconds() - graceSeconds - flushIntervalSeconds);
+        for (long start = Math.max(from, oldestOpen); start < to && start <= now; start += granularity.getSeconds()) {
+            LongAdder adder = open.get(new BucketKey(urlId, granularity, start));
+            if (adder != null && adder.sum() > 0) {
+                buckets.merge(start, adder.sum(), Long::sum);
+            }
+        }
+        List<ClickBucketDTO> series = new ArrayList<>(buckets.size());
+        buckets.forEach((start, clicks) -> series.add(new ClickBucketDTO(Instant.ofEpochSecond(start), clicks)));
+        return series;
+    }
+
+    //closed buckets only, or every bucket (shutdown, tests); a bucket written early just gets a second row later
+    synchronized void flush(boolean all) {
+        long now = Instant.now().getEpochSecond();
+        List<BucketCount> rows = new ArrayList<>();
+        for (BucketKey key : open.keySet()) {
+            if (!all && key.bucketStart + key.granularity.getSeconds() + graceSeconds > now) {
+                continue;
+            }
+            //nothing increments a bucket grace-seconds after it ended, so removing it can't race a click
+            //(all=true can, which is accepted at shutdown)
+            LongAdder adder = open.remove(key);
+            long clicks = adder == null ? 0 : adder.sum();
+            if (clicks > 0) {
+                rows.add(new BucketCount(key, clicks));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> jdbcTemplate.batchUpdate(INSERT_ROLLUP, rows, rows.size(), (ps, row) -> {
+                        ps.setLong(1, row.key.urlId);
+                        ps.setInt(2, row.key.granularity.getSeconds());
+                        ps.setLong(3, row.key.bucketStart);
+                        ps.setLong(4, row.clicks);
+                    }));
+            writtenCounter.increment(rows.size());
+        } catch (RuntimeException e) {
+            //keep the buckets in memory, the next flush retries them
+            for (BucketCount row : rows) {
+                open.computeIfAbsent(row.key, k -> new LongAdder()).add(row.clicks);
+            }
+            throw e;
+        }
+    }
+
+    //an exception would cancel the scheduled task; every failed flush is counted and logged with its cause
+    void flushQuietly() {
+        try {
+            flush(false);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.error("Click rollup flush failed, {} buckets kept for the next one", open.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush(true);
+    }
+
+    private record BucketKey(long urlId, StatsGranularity granularity, long bucketStart) {
+    }
+
+    private record BucketCount(BucketKey key, long clicks) {
+    }
+}
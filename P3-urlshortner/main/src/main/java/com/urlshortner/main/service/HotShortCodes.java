@@ -0,0 +1,178 @@
+package com.urlshortner.main.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.urlshortner.main.dto.HotShortCodeDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+//the most clicked short codes right now, in constant memory (count-min sketch + bounded candidate set)
+//the sketch is depth x width counters; a code's estimate is the minimum of its depth counters, never too low and
+//too high by at most ~e/width of all counted clicks (width 2048 -> 0.13%)
+//candidates holds at most capacity codes: a code gets in when its estimate beats the weakest candidate, which
+//then drops out; codes already in are counted with no lock, so only new contenders touch the lock
+//every decay-seconds all counters are halved, so old clicks fade out with that half-life
+//memory: depth * width longs + capacity codes, whatever the number of urls
+@Component
+public class HotShortCodes {
+    private final boolean enabled;
+    private final int depth;
+    private final int width;
+    private final int capacity;
+    private final AtomicLongArray counters;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    //smallest estimate among the candidates when it was last computed; 0 while there is room
+    private volatile long admissionThreshold;
+    private final ScheduledExecutorService decayer;
+
+    public HotShortCodes(@Value("${urls.hot.enabled:true}") boolean enabled,
+                         @Value("${urls.hot.sketch.depth:4}") int depth,
+                         @Value("${urls.hot.sketch.width:2048}") int width,
+                         @Value("${urls.hot.capacity:200}") int capacity,
+                         @Value("${urls.hot.decay-seconds:60}") long decaySeconds,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.depth = depth;
+        this.width = width;
+        this.capacity = capacity;
+        this.counters = new AtomicLongArray(depth * width);
+        Gauge.builder("urls.hot.candidates", candidates, Set::size)
+                .register(meterRegistry);
+        Gauge.builder("urls.hot.admission.threshold", this, h -> h.admissionThreshold)
+                .description("decayed clicks a code needs to become a hot candidate")
+                .register(meterRegistry);
+        this.decayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-short-codes-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            decayer.scheduleWithFixedDelay(this::decay, decaySeconds, decaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void record(String shortCode) {
+        if (!enabled) {
+            return;
+        }
+        long h1 = hash(shortCode);
+        long h2 = mix(h1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, h1, h2)));
+        }
+        if (estimate > admissionThreshold && !candidates.contains(shortCode)) {
+            admit(shortCode);
+        }
+    }
+
+    //the limit hottest codes by estimated decayed clicks
+    public List<HotShortCodeDTO> top(int limit) {
+        List<HotShortCodeDTO> hot = new ArrayList<>(candidates.size());
+        for (String shortCode : candidates) {
+            long estimate = estimate(shortCode);
+            if (estimate > 0) {
+                hot.add(new HotShortCodeDTO(shortCode, estimate));
+            }
+        }
+        hot.sort(Comparator.comparingLong(HotShortCodeDTO::getEstimatedClicks).reversed());
+        return hot.size() > limit ? new ArrayList<>(hot.subList(0, limit)) : hot;
+    }
+
+    long estimate(String shortCode) {
+        long h1 = hash(shortCode);
+        long h2 = mix(h1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    //O(capacity) scan, only for codes that beat the threshold and aren't candidates yet
+    private synchronized void admit(String shortCode) {
+        if (candidates.contains(shortCode)) {
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.add(shortCode);
+            if (candidates.size() == capacity) {
+                admissionThreshold = weakest().estimate;
+            }
+            return;
+        }
+        Weakest weakest = weakest();
+        if (estimate(shortCode) > weakest.estimate) {
+            candidates.remove(weakest.shortCode);
+            candidates.add(shortCode);
+            weakest = weakest();
+        }
+        admissionThreshold = weakest.estimate;
+    }
+
+    private Weakest weakest() {
+        String weakestCode = null;
+        long weakestEstimate = Long.MAX_VALUE;
+        for (String candidate : candidates) {
+            long estimate = estimate(candidate);
+            if (estimate < weakestEstimate) {
+                weakestCode = candidate;
+                weakestEstimate = estimate;
+            }
+        }
+        return new Weakest(weakestCode, weakestCode == null ? 0 : weakestEstimate);
+    }
+
+    //halve every counter; candidates that decayed to nothing make room again
+    synchronized void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >> 1);
+        }
+        candidates.removeIf(candidate -> estimate(candidate) == 0);
+        admissionThreshold = candidates.size() < capacity ? 0 : weakest().estimate;
+    }
+
+    private int index(int row, long h1, long h2) {
+        return row * width + (int) Math.floorMod(h1 + row * h2, (long) width);
+    }
+
+    //64-bit fnv-1a, then a murmur3 finalizer for avalanche
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decayer.shutdownNow();
+    }
+
+    private record Weakest(String shortCode, long estimate) {
+    }
+}
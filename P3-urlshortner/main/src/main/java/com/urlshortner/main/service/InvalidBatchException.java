@@ -0,0 +1,8 @@
+package com.urlshortner.main.service;
+
+//thrown when a batch shorten request is empty or larger than urls.batch.max-size
+public class InvalidBatchException extends RuntimeException {
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.urlshortner.main.service;
+
+//thrown for a stats query with an unknown granularity or an empty / too long range
+public class InvalidStatsQueryException extends RuntimeException {
+    public InvalidStatsQueryException(String message) {
+        super(message);
+    }
+}
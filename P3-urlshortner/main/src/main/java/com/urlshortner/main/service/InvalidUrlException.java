@@ -0,0 +1,12 @@
+package com.urlshortner.main.service;
+
+//thrown when a url to shorten is not an absolute http(s) url
+public class InvalidUrlException extends RuntimeException {
+    public InvalidUrlException(String originalUrl) {
+        super("Not a valid http(s) url: " + originalUrl);
+    }
+
+    public InvalidUrlException(int maxLength) {
+        super("Url longer than " + maxLength + " characters");
+    }
+}
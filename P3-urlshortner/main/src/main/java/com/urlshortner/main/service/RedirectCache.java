@@ -0,0 +1,59 @@
+package com.urlshortner.main.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.urlshortner.main.Entity.Url;
+import com.urlshortner.main.Repo.UrlRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+//shortCode -> (url id, originalUrl) for the redirect path; the id is what clicks are counted against
+//size-bounded with caffeine's W-TinyLFU: a one-off code doesn't evict a hot one
+//short links never change, so entries only leave by eviction; unknown codes are not cached here
+//concurrent misses on the same code share one findByShortCode query
+@Component
+public class RedirectCache {
+    private final UrlRepository urlRepository;
+    private final ShortCodeBloomFilter bloomFilter;
+    private final Cache<String, RedirectTarget> cache;
+
+    public RedirectCache(UrlRepository urlRepository, ShortCodeBloomFilter bloomFilter,
+                         @Value("${urls.redirect.cache.max-size:100000}") long maxSize,
+                         MeterRegistry meterRegistry) {
+        this.urlRepository = urlRepository;
+        this.bloomFilter = bloomFilter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "urls.redirect");
+    }
+
+    //null if the code doesn't exist
+    //on a cache miss the bloom filter is asked first, so unknown codes usually never reach the database
+    public RedirectTarget find(String shortCode) {
+        RedirectTarget target = cache.getIfPresent(shortCode);
+        if (target != null) {
+            return target;
+        }
+        if (!bloomFilter.mightContain(shortCode)) {
+            return null;
+        }
+        return cache.get(shortCode, this::load);
+    }
+
+    public void put(Url url) {
+        cache.put(url.getShortCode(), new RedirectTarget(url.getId(), url.getOriginalUrl()));
+    }
+
+    //returning null from the loader stores nothing
+    private RedirectTarget load(String shortCode) {
+        return urlRepository.findByShortCode(shortCode)
+                .map(url -> new RedirectTarget(url.getId(), url.getOriginalUrl()))
+                .orElse(null);
+    }
+}
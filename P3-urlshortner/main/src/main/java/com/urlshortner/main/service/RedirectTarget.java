@@ -0,0 +1,5 @@
+package com.urlshortner.main.service;
+
+//what a redirect needs: where to send the client and which url row to count the click against
+public record RedirectTarget(long urlId, String originalUrl) {
+}
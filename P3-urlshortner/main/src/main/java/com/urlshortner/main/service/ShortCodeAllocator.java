@@ -0,0 +1,212 @@
+package com.urlshortner.main.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.urlshortner.main.Entity.ShortCodeBlock;
+import com.urlshortner.main.Repo.ShortCodeBlockRepository;
+
+//hands out unique short codes without asking the database whether a code is taken
+//hi/lo: each node leases a block of block-size numbers (one insert into short_code_blocks per block),
+//then takes numbers from it with a lock-free getAndIncrement; only the thread that finds the block
+//used up takes the lock and leases the next one
+//a number is encoded as base62, optionally after a reversible bit scramble so consecutive codes look unrelated
+//numbers left in a block when the node stops are never used (the keyspace is large enough not to care)
+@Component
+public class ShortCodeAllocator {
+    private static final char[] BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    //scrambling works on 41-bit numbers: 2^41 < 62^7, so codes are at most 7 characters
+    private static final int BITS = 41;
+    private static final long MASK = (1L << BITS) - 1;
+    //odd multipliers are invertible mod 2^41 and x ^= x >>> 20 is its own kind of invertible step,
+    //so the whole scramble is a bijection on [0, 2^41)
+    private static final long MULTIPLIER_1 = 0x1E3779B97F4BL | 1;
+    private static final long MULTIPLIER_2 = 0x0BF58476D1CEL | 1;
+    private static final long INVERSE_1 = inverse(MULTIPLIER_1);
+    private static final long INVERSE_2 = inverse(MULTIPLIER_2);
+
+    private final ShortCodeBlockRepository blockRepository;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final boolean scramble;
+    private volatile Block current = new Block(0, 0);
+    //start -> end of every block this process leased; only this process allocates from them
+    private final ConcurrentSkipListMap<Long, Long> ownBlocks = new ConcurrentSkipListMap<>();
+    //end of the highest block known to be leased by any node: this node's leases and the last refreshLeasedEnd
+    private final AtomicLong leasedEnd = new AtomicLong();
+
+    public ShortCodeAllocator(ShortCodeBlockRepository blockRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${urls.codes.block-size:1000}") int blockSize,
+                              @Value("${urls.codes.scramble:true}") boolean scramble) {
+        this.blockRepository = blockRepository;
+        //a lease must stay committed even if the transaction that needed the code rolls back
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.scramble = scramble;
+    }
+
+    public String nextCode() {
+        return encode(nextNumber());
+    }
+
+    //count codes at once: one getAndAdd takes a whole range of the current block instead of a number at a time
+    public List<String> nextCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        while (codes.size() < count) {
+            Block block = current;
+            int wanted = count - codes.size();
+            long first = block.next.getAndAdd(wanted);
+            long last = Math.min(first + wanted, block.end);
+            for (long number = first; number < last; number++) {
+                codes.add(encode(number));
+            }
+            if (codes.size() < count) {
+                renew(block);
+            }
+        }
+        return codes;
+    }
+
+    private long nextNumber() {
+        while (true) {
+            Block block = current;
+            long number = block.next.getAndIncrement();
+            if (number < block.end) {
+                return number;
+            }
+            renew(block);
+        }
+    }
+
+    //the first thread to find the block used up leases the next one, the others just retry on it
+    private synchronized void renew(Block block) {
+        if (current == block) {
+            current = leaseBlock();
+        }
+    }
+
+    private Block leaseBlock() {
+        ShortCodeBlock lease = new ShortCodeBlock();
+        lease.setBlockSize(blockSize);
+        lease.setLeasedAt(Instant.now());
+        long id = newTransaction.execute(status -> blockRepository.save(lease).getId());
+        ownBlocks.put(id * blockSize, (id + 1) * blockSize);
+        leasedEnd.accumulateAndGet((id + 1) * blockSize, Math::max);
+        return new Block(id * blockSize, (id + 1) * blockSize);
+    }
+
+    //number of a code as encoded by this allocator, -1 if no allocator could have produced it
+    long decode(String code) {
+        if (code.isEmpty() || code.length() > 7) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int digit = digit(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 62 + digit;
+        }
+        if (value > MASK) {
+            return -1;
+        }
+        long number = scramble ? unscramble(value) : value;
+        //leading zeros and the like: only the canonical spelling is a real code
+        return encode(number).equals(code) ? number : -1;
+    }
+
+    //true if number is in a block this process leased; every code from those blocks was created here
+    boolean isLeasedHere(long number) {
+        Map.Entry<Long, Long> block = ownBlocks.floorEntry(number);
+        return block != null && number < block.getValue();
+    }
+
+    //true if number is more than marginBlocks blocks past the highest lease known here; no database access,
+    //the known end only moves with this node's leases and refreshLeasedEnd
+    //ids come from one sequence, so leases other nodes took since the last refresh sit right above the known end
+    boolean isBeyondLeased(long number, int marginBlocks) {
+        return number >= leasedEnd.get() + (long) marginBlocks * blockSize;
+    }
+
+    //reads the highest lease of any node (one max(id) query)
+    void refreshLeasedEnd() {
+        Long maxId = blockRepository.findMaxId();
+        leasedEnd.accumulateAndGet(maxId == null ? 0 : (maxId + 1) * blockSize, Math::max);
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 36;
+        }
+        return -1;
+    }
+
+    String encode(long number) {
+        if (number > MASK) {
+            throw new IllegalStateException("Short code space exhausted");
+        }
+        long value = scramble ? scramble(number) : number;
+        if (value == 0) {
+            return "0";
+        }
+        char[] chars = new char[11];
+        int position = chars.length;
+        while (value > 0) {
+            chars[--position] = BASE62[(int) (value % 62)];
+            value /= 62;
+        }
+        return new String(chars, position, chars.length - position);
+    }
+
+    static long scramble(long number) {
+        long x = (number * MULTIPLIER_1) & MASK;
+        x ^= x >>> 20;
+        return (x * MULTIPLIER_2) & MASK;
+    }
+
+    //reverse steps of scramble; y = x ^ x >>> 20 on 41 bits is undone by y ^ y >>> 20 ^ y >>> 40
+    static long unscramble(long value) {
+        long x = (value * INVERSE_2) & MASK;
+        x ^= (x >>> 20) ^ (x >>> 40);
+        return (x * INVERSE_1) & MASK;
+    }
+
+    //inverse of an odd multiplier mod 2^64 (newton iteration), so also mod 2^41
+    private static long inverse(long multiplier) {
+        long inverse = multiplier;
+        for (int i = 0; i < 6; i++) {
+            inverse *= 2 - multiplier * inverse;
+        }
+        return inverse;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
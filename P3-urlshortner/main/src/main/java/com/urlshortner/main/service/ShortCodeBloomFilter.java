@@ -0,0 +1,264 @@
+package com.urlshortner.main.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.urlshortner.main.Repo.UrlRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+//bloom filter of short codes, checked before a redirect-cache miss goes to the database
+//sized for expected-insertions codes at false-positive-rate; past that the real rate climbs (see urls.bloom.* gauges)
+//new codes are added by UrlService right after they are saved on this node
+//
+//a miss must never turn an existing link into a 404, so it is only trusted for codes no other node can have made:
+//  - strings ShortCodeAllocator can't produce (wrong length/characters, non-canonical)
+//  - numbers in a block this node leased (it added every code it created from them)
+//  - numbers more than leased-end-margin-blocks blocks beyond the highest lease of any node
+//any other miss (a block of another node) goes to the cache/database as before
+//the highest lease is read every leased-end-refresh-ms in the background, never on a miss; leases other nodes
+//take meanwhile land inside the margin, and if refreshes stop for 3 intervals that last case isn't trusted at all
+//with single-node=true the filter is also built from the whole urls table at startup and every miss is trusted;
+//only set it when this is the only node creating links
+@Component
+public class ShortCodeBloomFilter {
+    private static final Logger log = LoggerFactory.getLogger(ShortCodeBloomFilter.class);
+
+    private final UrlRepository urlRepository;
+    private final ShortCodeAllocator shortCodeAllocator;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final boolean singleNode;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long rebuildMinutes;
+    private final long leasedEndRefreshMs;
+    private final int leasedEndMarginBlocks;
+    private final Counter rejectedCounter;
+    private final Counter unverifiedCounter;
+    private final ScheduledExecutorService rebuilder;
+
+    private volatile Filter current;
+    //filter being rebuilt; adds go to both until it replaces current
+    private volatile Filter building;
+    private volatile boolean ready;
+    //System.nanoTime() of the last successful ShortCodeAllocator.refreshLeasedEnd
+    private volatile long leasedEndRefreshedAt;
+    private volatile boolean leasedEndRefreshed;
+
+    public ShortCodeBloomFilter(UrlRepository urlRepository,
+                                ShortCodeAllocator shortCodeAllocator,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${urls.bloom.enabled:true}") boolean enabled,
+                                @Value("${urls.bloom.single-node:false}") boolean singleNode,
+                                @Value("${urls.bloom.expected-insertions:1000000}") long expectedInsertions,
+                                @Value("${urls.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${urls.bloom.rebuild-minutes:0}") long rebuildMinutes,
+                                @Value("${urls.bloom.leased-end-refresh-ms:1000}") long leasedEndRefreshMs,
+                                @Value("${urls.bloom.leased-end-margin-blocks:1000}") int leasedEndMarginBlocks,
+                                MeterRegistry meterRegistry) {
+        this.urlRepository = urlRepository;
+        this.shortCodeAllocator = shortCodeAllocator;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.singleNode = singleNode;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildMinutes = rebuildMinutes;
+        this.leasedEndRefreshMs = leasedEndRefreshMs;
+        this.leasedEndMarginBlocks = leasedEndMarginBlocks;
+        this.current = new Filter(expectedInsertions, falsePositiveRate);
+        this.rejectedCounter = Counter.builder("urls.bloom.rejected")
+                .description("redirects answered 404 by the bloom filter without a database query")
+                .register(meterRegistry);
+        this.unverifiedCounter = Counter.builder("urls.bloom.unverified")
+                .description("filter misses for codes another node may have created, passed on to the database")
+                .register(meterRegistry);
+        Gauge.builder("urls.bloom.bits", this, f -> f.current.bitCount)
+                .description("size of the filter")
+                .baseUnit("bits")
+                .register(meterRegistry);
+        Gauge.builder("urls.bloom.hashes", this, f -> f.current.hashCount)
+                .register(meterRegistry);
+        Gauge.builder("urls.bloom.insertions", this, f -> f.current.insertions.get())
+                .description("codes added since the last (re)build")
+                .register(meterRegistry);
+        Gauge.builder("urls.bloom.false-positive-rate", this, f -> f.current.expectedFalsePositiveRate())
+                .description("estimated false positive rate at the current fill")
+                .register(meterRegistry);
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "short-code-bloom-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!singleNode) {
+            //the filter only has to know this node's codes, and there are none yet
+            refreshLeasedEnd();
+            rebuilder.scheduleWithFixedDelay(this::refreshLeasedEnd, leasedEndRefreshMs, leasedEndRefreshMs,
+                    TimeUnit.MILLISECONDS);
+            ready = true;
+            return;
+        }
+        rebuild();
+        if (rebuildMinutes > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    //false only if the code can't exist (see above)
+    public boolean mightContain(String shortCode) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        if (current.mightContain(shortCode)) {
+            return true;
+        }
+        if (singleNode || cannotBeFromAnotherNode(shortCode)) {
+            rejectedCounter.increment();
+            return false;
+        }
+        unverifiedCounter.increment();
+        return true;
+    }
+
+    private boolean cannotBeFromAnotherNode(String shortCode) {
+        long number = shortCodeAllocator.decode(shortCode);
+        return number < 0 || shortCodeAllocator.isLeasedHere(number)
+                || (isLeasedEndCurrent() && shortCodeAllocator.isBeyondLeased(number, leasedEndMarginBlocks));
+    }
+
+    private boolean isLeasedEndCurrent() {
+        return leasedEndRefreshed
+                && System.nanoTime() - leasedEndRefreshedAt < TimeUnit.MILLISECONDS.toNanos(3 * leasedEndRefreshMs);
+    }
+
+    //a failed read keeps the previous end; it only stops being trusted once it is too old
+    void refreshLeasedEnd() {
+        try {
+            long startedAt = System.nanoTime();
+            shortCodeAllocator.refreshLeasedEnd();
+            leasedEndRefreshedAt = startedAt;
+            leasedEndRefreshed = true;
+        } catch (RuntimeException e) {
+            log.warn("Short code bloom filter: reading the highest leased block failed", e);
+        }
+    }
+
+    //call after the url row is committed
+    public void add(String shortCode) {
+        current.put(shortCode);
+        Filter next = building;
+        if (next != null) {
+            next.put(shortCode);
+        }
+    }
+
+    //building is published before the table is read: a code committed and added after that goes into
+    //both filters, one committed before it is seen by the stream
+    private void rebuild() {
+        Filter next = new Filter(expectedInsertions, falsePositiveRate);
+        building = next;
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> codes = urlRepository.streamAllShortCodes()) {
+                codes.forEach(next::put);
+            }
+        });
+        current = next;
+        building = null;
+        ready = true;
+        log.info("Short code bloom filter: {} codes, {} bits, {} hashes, estimated false positive rate {}",
+                next.insertions.get(), next.bitCount, next.hashCount, next.expectedFalsePositiveRate());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private static final class Filter {
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray words;
+        private final AtomicLong insertions = new AtomicLong();
+
+        //standard sizing: m = -n ln p / (ln 2)^2 bits, k = m / n * ln 2 hashes
+        private Filter(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        //double hashing: bit i = h1 + i * h2
+        private void put(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+            insertions.incrementAndGet();
+        }
+
+        private boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //(1 - e^(-k n / m))^k
+        private double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashCount * (double) insertions.get() / bitCount), hashCount);
+        }
+
+        //64-bit fnv-1a, then a murmur3 finalizer for avalanche
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.urlshortner.main.service;
+
+import java.util.Locale;
+
+//bucket sizes of the click rollups
+public enum StatsGranularity {
+    MINUTE(60),
+    HOUR(3600);
+
+    private final int seconds;
+
+    StatsGranularity(int seconds) {
+        this.seconds = seconds;
+    }
+
+    public int getSeconds() {
+        return this.seconds;
+    }
+
+    //"minute" / "hour", as used in the stats api
+    public String getLabel() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    //start of the bucket containing epochSecond
+    public long bucketStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, seconds) * seconds;
+    }
+
+    public static StatsGranularity parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidStatsQueryException("granularity must be minute or hour");
+        }
+    }
+}
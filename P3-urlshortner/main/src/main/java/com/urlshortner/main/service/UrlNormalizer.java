@@ -0,0 +1,80 @@
+package com.urlshortner.main.service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+//canonical form of an http(s) url, used to spot the same link shortened twice
+//  scheme and host lowercased, default port (80 / 443) dropped, empty path -> "/", one trailing slash removed
+//  query parameters sorted by name; parameters with the same name keep their order (a=2&a=1 != a=1&a=2),
+//  empty parameters dropped; percent-encoding, user info and fragment are left as they are
+//the stored and redirected url is still the one the user sent, only the hash uses this form
+final class UrlNormalizer {
+    private UrlNormalizer() {
+    }
+
+    //url must already be validated as absolute http(s)
+    static String normalize(String url) {
+        URI uri = URI.create(url);
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        if ((port == 80 && scheme.equals("http")) || (port == 443 && scheme.equals("https"))) {
+            port = -1;
+        }
+        StringBuilder normalized = new StringBuilder(url.length()).append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            normalized.append(uri.getRawUserInfo()).append('@');
+        }
+        normalized.append(uri.getHost().toLowerCase(Locale.ROOT));
+        if (port != -1) {
+            normalized.append(':').append(port);
+        }
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        } else if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        normalized.append(path);
+        String query = sortedQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            normalized.append('?').append(query);
+        }
+        if (uri.getRawFragment() != null) {
+            normalized.append('#').append(uri.getRawFragment());
+        }
+        return normalized.toString();
+    }
+
+    //sha-256 of the normalized url, the value of urls.url_hash
+    static byte[] hash(String normalizedUrl) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            //every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sortedQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        List<String> parameters = new ArrayList<>(Arrays.asList(rawQuery.split("&")));
+        parameters.removeIf(String::isEmpty);
+        //List.sort is stable
+        parameters.sort(Comparator.comparing(UrlNormalizer::parameterName));
+        return String.join("&", parameters);
+    }
+
+    private static String parameterName(String parameter) {
+        int equals = parameter.indexOf('=');
+        return equals < 0 ? parameter : parameter.substring(0, equals);
+    }
+}
@@ -0,0 +1,8 @@
+package com.urlshortner.main.service;
+
+//thrown when a short code doesn't exist or belongs to another user
+public class UrlNotFoundException extends RuntimeException {
+    public UrlNotFoundException(String shortCode) {
+        super("Short url not found: " + shortCode);
+    }
+}
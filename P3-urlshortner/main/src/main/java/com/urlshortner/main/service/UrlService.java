@@ -0,0 +1,264 @@
+package com.urlshortner.main.service;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.urlshortner.main.Entity.Url;
+import com.urlshortner.main.Entity.User;
+import com.urlshortner.main.Repo.OwnedUrl;
+import com.urlshortner.main.Repo.UrlRepository;
+import com.urlshortner.main.Repo.UserRepository;
+import com.urlshortner.main.dto.ClickCountDTO;
+import com.urlshortner.main.dto.ShortenRequestDTO;
+import com.urlshortner.main.dto.ShortenResponseDTO;
+import com.urlshortner.main.dto.UrlStatsDTO;
+
+import jakarta.persistence.EntityManager;
+
+@Service
+public class UrlService {
+    //length of urls.original_url
+    static final int MAX_URL_LENGTH = 2048;
+    private static final String URL_HASH_INDEX = "ux_urls_user_url_hash";
+
+    private final UrlRepository urlRepository;
+    private final UserRepository userRepository;
+    private final ShortCodeAllocator shortCodeAllocator;
+    private final RedirectCache redirectCache;
+    private final ShortCodeBloomFilter bloomFilter;
+    private final ClickCounter clickCounter;
+    private final ClickRollups clickRollups;
+    private final int maxStatsPoints;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int jdbcBatchSize;
+
+    public UrlService(UrlRepository urlRepository, UserRepository userRepository,
+                      ShortCodeAllocator shortCodeAllocator, RedirectCache redirectCache,
+                      ShortCodeBloomFilter bloomFilter, ClickCounter clickCounter, ClickRollups clickRollups,
+                      @Value("${urls.stats.max-points:1440}") int maxStatsPoints,
+                      EntityManager entityManager, TransactionTemplate transactionTemplate,
+                      @Value("${urls.batch.max-size:1000}") int maxBatchSize,
+                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize) {
+        this.urlRepository = urlRepository;
+        this.userRepository = userRepository;
+        this.shortCodeAllocator = shortCodeAllocator;
+        this.redirectCache = redirectCache;
+        this.bloomFilter = bloomFilter;
+        this.clickCounter = clickCounter;
+        this.clickRollups = clickRollups;
+        this.maxStatsPoints = maxStatsPoints;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    //a url the owner already shortened (same normalized form, see UrlNormalizer) returns its existing code:
+    //one lookup on ux_urls_user_url_hash, no insert
+    //new codes come from ShortCodeAllocator and are unique by construction, so a new url is one insert
+    public ShortenResponseDTO shorten(ShortenRequestDTO request, AuthenticatedUser owner) {
+        String originalUrl = validate(request.getOriginalUrl());
+        byte[] urlHash = UrlNormalizer.hash(UrlNormalizer.normalize(originalUrl));
+        Optional<OwnedUrl> existing = urlRepository.findOwnedByHash(owner.getId(), urlHash);
+        if (existing.isPresent()) {
+            return existingResponse(existing.get());
+        }
+        Url url = new Url();
+        url.setOriginalUrl(originalUrl);
+        url.setShortCode(shortCodeAllocator.nextCode());
+        url.setUrlHash(urlHash);
+        url.setUser(userRepository.getReferenceById(owner.getId()));
+        Url savedUrl;
+        try {
+            savedUrl = urlRepository.save(url);
+        } catch (DataIntegrityViolationException e) {
+            if (!isUrlHashViolation(e)) {
+                throw e;
+            }
+            //the same url shortened concurrently by the same owner: the other request's row won
+            return urlRepository.findOwnedByHash(owner.getId(), urlHash).map(UrlService::existingResponse)
+                    .orElseThrow(() -> e);
+        }
+        bloomFilter.add(savedUrl.getShortCode());
+        //new links are usually clicked right away
+        redirectCache.put(savedUrl);
+        return new ShortenResponseDTO(savedUrl.getId(), savedUrl.getShortCode(), savedUrl.getOriginalUrl(), true);
+    }
+
+    //all urls are validated first, so a bad one rejects the batch before anything is allocated or written
+    //urls the owner already has (one IN lookup for the whole batch) and repeats within the batch get the existing
+    //code; codes for the rest come from one nextCodes call and the rows go in one transaction as jdbc batches of
+    //jdbcBatchSize (persist + flush every jdbcBatchSize rows, clear so the persistence context stays small)
+    //results are in request order
+    public List<ShortenResponseDTO> shortenBatch(List<ShortenRequestDTO> requests, AuthenticatedUser owner) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidBatchException("No urls to shorten");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new InvalidBatchException("At most " + maxBatchSize + " urls per batch");
+        }
+        List<String> originalUrls = new ArrayList<>(requests.size());
+        for (ShortenRequestDTO request : requests) {
+            originalUrls.add(validate(request == null ? null : request.getOriginalUrl()));
+        }
+        try {
+            return insertBatch(originalUrls, owner);
+        } catch (ConstraintViolationException e) {
+            if (!isUrlHashViolation(e)) {
+                throw e;
+            }
+            //some of the urls were shortened concurrently by the same owner; they exist now, so one retry
+            //returns them as existing
+            return insertBatch(originalUrls, owner);
+        }
+    }
+
+    private List<ShortenResponseDTO> insertBatch(List<String> originalUrls, AuthenticatedUser owner) {
+        List<ByteBuffer> urlHashes = new ArrayList<>(originalUrls.size());
+        for (String originalUrl : originalUrls) {
+            urlHashes.add(ByteBuffer.wrap(UrlNormalizer.hash(UrlNormalizer.normalize(originalUrl))));
+        }
+        //request position of the first occurrence of each hash, existing rows by hash
+        Map<ByteBuffer, Integer> firstIndex = new HashMap<>();
+        for (int i = 0; i < urlHashes.size(); i++) {
+            firstIndex.putIfAbsent(urlHashes.get(i), i);
+        }
+        Map<ByteBuffer, OwnedUrl> existing = new HashMap<>();
+        List<byte[]> lookup = firstIndex.keySet().stream().map(ByteBuffer::array).toList();
+        for (OwnedUrl ownedUrl : urlRepository.findOwnedByHashes(owner.getId(), lookup)) {
+            existing.put(ByteBuffer.wrap(ownedUrl.getUrlHash()), ownedUrl);
+        }
+        int newUrls = (int) firstIndex.keySet().stream().filter(hash -> !existing.containsKey(hash)).count();
+        Iterator<String> shortCodes = shortCodeAllocator.nextCodes(newUrls).iterator();
+
+        List<ShortenResponseDTO> results = transactionTemplate.execute(status -> {
+            List<ShortenResponseDTO> saved = new ArrayList<>(originalUrls.size());
+            User user = entityManager.getReference(User.class, owner.getId());
+            int persisted = 0;
+            for (int i = 0; i < originalUrls.size(); i++) {
+                ByteBuffer urlHash = urlHashes.get(i);
+                OwnedUrl ownedUrl = existing.get(urlHash);
+                if (ownedUrl != null) {
+                    saved.add(existingResponse(ownedUrl));
+                    continue;
+                }
+                int first = firstIndex.get(urlHash);
+                if (first < i) {
+                    ShortenResponseDTO original = saved.get(first);
+                    saved.add(new ShortenResponseDTO(original.getId(), original.getShortCode(),
+                            original.getOriginalUrl(), false));
+                    continue;
+                }
+                Url url = new Url();
+                url.setOriginalUrl(originalUrls.get(i));
+                url.setShortCode(shortCodes.next());
+                url.setUrlHash(urlHash.array());
+                url.setUser(user);
+                entityManager.persist(url);
+                saved.add(new ShortenResponseDTO(url.getId(), url.getShortCode(), url.getOriginalUrl(), true));
+                if (++persisted % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    user = entityManager.getReference(User.class, owner.getId());
+                }
+            }
+            //inside the callback, so a unique violation surfaces here and not from the commit
+            entityManager.flush();
+            return saved;
+        });
+        //not put into the redirect cache: bulk-created links aren't all clicked right away
+        for (ShortenResponseDTO result : results) {
+            if (result.isCreated()) {
+                bloomFilter.add(result.getShortCode());
+            }
+        }
+        return results;
+    }
+
+    private static ShortenResponseDTO existingResponse(OwnedUrl ownedUrl) {
+        return new ShortenResponseDTO(ownedUrl.getId(), ownedUrl.getShortCode(), ownedUrl.getOriginalUrl(), false);
+    }
+
+    //written count plus what ClickCounter still holds in memory; only the owner can read it
+    public ClickCountDTO getClicks(String shortCode, AuthenticatedUser owner) {
+        Url url = findOwned(shortCode, owner);
+        return new ClickCountDTO(url.getShortCode(), url.getClicks(), clickCounter.pending(url.getId()));
+    }
+
+    //buckets from the one containing from through the one containing to; defaults: to = now, from = max-points back
+    //the range is capped at max-points buckets, so a query reads a bounded number of rows at any traffic
+    public UrlStatsDTO getStats(String shortCode, Instant from, Instant to, String granularityName,
+                                AuthenticatedUser owner) {
+        StatsGranularity granularity = StatsGranularity.parse(granularityName);
+        Url url = findOwned(shortCode, owner);
+        long step = granularity.getSeconds();
+        long end = granularity.bucketStart((to == null ? Instant.now() : to).getEpochSecond()) + step;
+        long start = from == null ? end - maxStatsPoints * step : granularity.bucketStart(from.getEpochSecond());
+        if (start >= end) {
+            throw new InvalidStatsQueryException("from must be before to");
+        }
+        if ((end - start) / step > maxStatsPoints) {
+            throw new InvalidStatsQueryException("at most " + maxStatsPoints + " " + granularity.getLabel()
+                    + " buckets per query");
+        }
+        return new UrlStatsDTO(url.getShortCode(), granularity.getLabel(), Instant.ofEpochSecond(start),
+                Instant.ofEpochSecond(end), clickRollups.series(url.getId(), granularity, start, end));
+    }
+
+    //someone else's link is reported as missing, so codes can't be probed through these endpoints
+    private Url findOwned(String shortCode, AuthenticatedUser owner) {
+        Url url = urlRepository.findByShortCode(shortCode).orElseThrow(() -> new UrlNotFoundException(shortCode));
+        if (url.getUser() == null || !url.getUser().getId().equals(owner.getId())) {
+            throw new UrlNotFoundException(shortCode);
+        }
+        return url;
+    }
+
+    //true only if the (user_id, url_hash) unique index fired, not short_code or a too long value
+    static boolean isUrlHashViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(URL_HASH_INDEX);
+            }
+        }
+        return false;
+    }
+
+    private static String validate(String originalUrl) {
+        if (originalUrl == null) {
+            throw new InvalidUrlException(null);
+        }
+        if (originalUrl.trim().length() > MAX_URL_LENGTH) {
+            throw new InvalidUrlException(MAX_URL_LENGTH);
+        }
+        try {
+            URI uri = new URI(originalUrl.trim());
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || scheme == null
+                    || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                throw new InvalidUrlException(originalUrl);
+            }
+            return uri.toString();
+        } catch (URISyntaxException e) {
+            throw new InvalidUrlException(originalUrl);
+        }
+    }
+}
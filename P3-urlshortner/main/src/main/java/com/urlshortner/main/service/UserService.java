@@ -0,0 +1,51 @@
+package com.urlshortner.main.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.urlshortner.main.Entity.User;
+import com.urlshortner.main.Repo.UserRepository;
+import com.urlshortner.main.dto.RegisterDTO;
+import com.urlshortner.main.dto.RegisterResponseDTO;
+
+@Service
+public class UserService implements UserDetailsService {
+    private final UserRepository userRepository;
+    private final Set<String> adminUsernames;
+
+    public UserService(UserRepository userRepository,
+                       @Value("${urls.admin.usernames:}") Set<String> adminUsernames) {
+        this.userRepository = userRepository;
+        this.adminUsernames = adminUsernames;
+    }
+
+    public RegisterResponseDTO registerUser(RegisterDTO registerDTO, PasswordEncoder passwordEncoder) {
+        if (userRepository.findByUsername(registerDTO.getUsername()).isPresent()) {
+            return new RegisterResponseDTO(null, null, "Username already exists");
+        }
+        User user = new User();
+        user.setUsername(registerDTO.getUsername());
+        user.setPassword(passwordEncoder.encode(registerDTO.getPassword()));
+        User savedUser = userRepository.save(user);
+        return new RegisterResponseDTO(savedUser.getId(), savedUser.getUsername(), "User registered successfully");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        //admins are configured by username, there are no roles in the database
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(),
+                adminUsernames.contains(user.getUsername())
+                        ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                        : List.of());
+    }
+}
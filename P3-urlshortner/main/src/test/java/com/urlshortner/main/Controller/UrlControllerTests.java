@@ -0,0 +1,79 @@
+package com.urlshortner.main.Controller;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.urlshortner.main.Entity.User;
+import com.urlshortner.main.Repo.UserRepository;
+import com.urlshortner.main.dto.ShortenRequestDTO;
+import com.urlshortner.main.service.AuthenticatedUser;
+import com.urlshortner.main.service.UrlService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UrlControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Test
+    void redirectsKnownCodesAndRejectsUnknownOnes() throws Exception {
+        ShortenRequestDTO request = new ShortenRequestDTO();
+        request.setOriginalUrl("https://example.com/landing?a=1");
+        String shortCode = urlService.shorten(request, owner()).getShortCode();
+
+        mockMvc.perform(get("/" + shortCode))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "https://example.com/landing?a=1"))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+        mockMvc.perform(get("/rdMissing"))
+                .andExpect(status().isNotFound());
+    }
+
+    //201 only when something was created, 200 when every url already existed, for single and batch alike
+    @Test
+    void createdStatusOnlyForNewUrls() throws Exception {
+        AuthenticatedUser owner = owner();
+        String single = "{\"originalUrl\":\"https://example.com/status\"}";
+        String batch = "[{\"originalUrl\":\"https://example.com/status\"},{\"originalUrl\":\"https://example.com/s2\"}]";
+
+        mockMvc.perform(post("/urls").with(user(owner)).contentType(MediaType.APPLICATION_JSON).content(single))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/urls").with(user(owner)).contentType(MediaType.APPLICATION_JSON).content(single))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(false));
+        mockMvc.perform(post("/urls/batch").with(user(owner)).contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].created").value(false))
+                .andExpect(jsonPath("$[1].created").value(true));
+        mockMvc.perform(post("/urls/batch").with(user(owner)).contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk());
+    }
+
+    private AuthenticatedUser owner() {
+        User user = new User();
+        user.setUsername("status-" + System.nanoTime());
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), List.of());
+    }
+}
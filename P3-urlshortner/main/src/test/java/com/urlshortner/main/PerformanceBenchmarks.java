@@ -0,0 +1,144 @@
+package com.urlshortner.main;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.urlshortner.main.Entity.User;
+import com.urlshortner.main.Repo.UserRepository;
+import com.urlshortner.main.dto.ShortenRequestDTO;
+import com.urlshortner.main.service.AuthenticatedUser;
+import com.urlshortner.main.service.UrlService;
+
+//before/after timings for the performance changes; they only print numbers, behaviour is covered by the regular tests
+//skipped by default, run with: mvn test -Dbenchmarks=true -Dtest=PerformanceBenchmarks
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "urls.batch.max-size=5000")
+class PerformanceBenchmarks {
+    private static final int ROWS = 5_000;
+    private static final int LINKS = 1_000;
+    private static final int THREADS = 16;
+    private static final long WARMUP_SECONDS = 20;
+    private static final long SECONDS = 10;
+    //single node target for cached redirects (whole stack: tomcat, security filters, controller)
+    private static final long TARGET_REQUESTS_PER_SECOND = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    private AuthenticatedUser owner;
+
+    @BeforeEach
+    void createOwner() {
+        User user = new User();
+        user.setUsername("bench-" + System.nanoTime());
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        owner = new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), List.of());
+    }
+
+    @Test
+    void cachedRedirectThroughput() throws Exception {
+        List<String> codes = new ArrayList<>(LINKS);
+        urlService.shortenBatch(requests("redirect", LINKS), owner).forEach(url -> codes.add(url.getShortCode()));
+
+        //warm up the cache and the jit with the same load, then measure
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        load(pool, codes, WARMUP_SECONDS);
+        long perSecond = load(pool, codes, SECONDS) / SECONDS;
+        pool.shutdown();
+
+        System.out.println("redirects: " + perSecond + " req/s with " + THREADS + " client threads"
+                + " (target " + TARGET_REQUESTS_PER_SECOND + ")");
+    }
+
+    @Test
+    void singleCreatesVersusBatch() {
+        //warm up both paths
+        shortenOneByOne(requests("warm-single", 500));
+        urlService.shortenBatch(requests("warm-batch", 500), owner);
+
+        long start = System.nanoTime();
+        shortenOneByOne(requests("single", ROWS));
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        urlService.shortenBatch(requests("batch", ROWS), owner);
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.println("shorten x " + ROWS + ":      " + perSecond(ROWS, singleNanos) + " urls/s");
+        System.out.println("shortenBatch " + ROWS + ": " + perSecond(ROWS, batchNanos) + " urls/s");
+    }
+
+    //THREADS clients cycling through the codes for the given time; returns the number of redirects served
+    private long load(ExecutorService pool, List<String> codes, long seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            results.add(pool.submit(() -> {
+                long requests = 0;
+                while (System.nanoTime() < deadline) {
+                    redirect(codes.get((int) ((requests * THREADS + offset) % codes.size())));
+                    requests++;
+                }
+                return requests;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+
+    private void redirect(String shortCode) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/" + shortCode)).build();
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void shortenOneByOne(List<ShortenRequestDTO> requests) {
+        for (ShortenRequestDTO request : requests) {
+            urlService.shorten(request, owner);
+        }
+    }
+
+    private static List<ShortenRequestDTO> requests(String prefix, int rows) {
+        List<ShortenRequestDTO> requests = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            ShortenRequestDTO request = new ShortenRequestDTO();
+            request.setOriginalUrl("https://example.com/" + prefix + "/" + i);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static long perSecond(long count, long nanos) {
+        return count * 1_000_000_000L / nanos;
+    }
+}
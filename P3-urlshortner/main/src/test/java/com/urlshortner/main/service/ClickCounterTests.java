@@ -0,0 +1,113 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.urlshortner.main.Entity.Url;
+import com.urlshortner.main.Repo.UrlRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//long flush interval so only the test's own flush() calls write
+@SpringBootTest(properties = "urls.clicks.flush-interval-ms=600000")
+class ClickCounterTests {
+    private static final int THREADS = 8;
+    private static final int CLICKS_PER_THREAD = 5_000;
+
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    //concurrent clicks on two urls, none lost between the adders and the batched update
+    @Test
+    void concurrentClicksAreFlushedExactly() throws Exception {
+        long hot = save("ccHot").getId();
+        long cold = save("ccCold").getId();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                for (int i = 0; i < CLICKS_PER_THREAD; i++) {
+                    clickCounter.record(hot);
+                    if (i % 100 == 0) {
+                        clickCounter.record(cold);
+                    }
+                    if (i % 1000 == 0) {
+                        clickCounter.flush();
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        long hotClicks = THREADS * CLICKS_PER_THREAD;
+        long coldClicks = THREADS * (CLICKS_PER_THREAD / 100);
+        assertEquals(hotClicks, clicks(hot) + clickCounter.pending(hot));
+        //twice: the second flush also drains adders retired by the first
+        clickCounter.flush();
+        clickCounter.flush();
+        assertEquals(hotClicks, clicks(hot));
+        assertEquals(coldClicks, clicks(cold));
+        assertEquals(0, clickCounter.pending(hot));
+    }
+
+    //a failing database neither loses the deltas nor kills the scheduled flush, and each failure is counted
+    @Test
+    void failedFlushIsCountedAndKeepsTheClicks() throws Exception {
+        JdbcTemplate failingJdbc = mock(JdbcTemplate.class);
+        when(failingJdbc.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[][] {{1}});
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClickCounter failing = new ClickCounter(failingJdbc, mock(PlatformTransactionManager.class),
+                600_000, 500, registry);
+        failing.record(7);
+        failing.record(7);
+        failing.flushQuietly();
+        failing.flushQuietly();
+        assertEquals(2, registry.get("urls.clicks.flush.failures").counter().count());
+        assertEquals(2, failing.pending(7));
+
+        //the database is back: shutdown writes what the failed flushes kept
+        failing.shutdown();
+        assertEquals(2, registry.get("urls.clicks.flushed").counter().count());
+        assertEquals(0, failing.pending(7));
+    }
+
+    private Url save(String shortCode) {
+        Url url = new Url();
+        url.setShortCode(shortCode);
+        url.setOriginalUrl("https://example.com/" + shortCode);
+        return urlRepository.save(url);
+    }
+
+    private long clicks(long urlId) {
+        return urlRepository.findById(urlId).orElseThrow().getClicks();
+    }
+}
@@ -0,0 +1,84 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.urlshortner.main.Repo.ClickRollupRepository;
+import com.urlshortner.main.dto.ClickBucketDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//long flush interval so only the test's own flush() calls write
+@SpringBootTest(properties = "urls.stats.flush-interval-ms=600000")
+class ClickRollupsTests {
+    private static final long URL_ID = 4242;
+
+    @Autowired
+    private ClickRollups clickRollups;
+
+    @Autowired
+    private ClickRollupRepository clickRollupRepository;
+
+    //the series is the same before a flush (memory), after it (rows) and after a second partial row
+    @Test
+    void seriesMergesWrittenAndOpenBuckets() {
+        long now = Instant.now().getEpochSecond();
+        long from = StatsGranularity.HOUR.bucketStart(now) - 3600;
+        long to = now + 3600;
+        for (int i = 0; i < 5; i++) {
+            clickRollups.record(URL_ID);
+        }
+        assertEquals(5, total(clickRollups.series(URL_ID, StatsGranularity.MINUTE, from, to)));
+
+        clickRollups.flush(true);
+        assertEquals(5, total(clickRollups.series(URL_ID, StatsGranularity.MINUTE, from, to)));
+        assertEquals(5, total(clickRollups.series(URL_ID, StatsGranularity.HOUR, from, to)));
+
+        clickRollups.record(URL_ID);
+        clickRollups.flush(true);
+        assertEquals(6, total(clickRollups.series(URL_ID, StatsGranularity.HOUR, from, to)));
+        //one minute row and one hour row per flush, not one per click
+        assertEquals(4, clickRollupRepository.findAll().stream().filter(r -> r.getUrlId() == URL_ID).count());
+    }
+
+    //a failed flush is counted and keeps its buckets; grace -1 closes the current buckets right away
+    @Test
+    void failedFlushIsCountedAndKeepsTheBuckets() throws Exception {
+        JdbcTemplate failingJdbc = mock(JdbcTemplate.class);
+        when(failingJdbc.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[][] {{1, 1}});
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClickRollups failing = new ClickRollups(clickRollupRepository, failingJdbc,
+                mock(PlatformTransactionManager.class), 600_000, -3600, registry);
+        failing.record(URL_ID + 1);
+        failing.flushQuietly();
+        assertEquals(1, registry.get("urls.stats.flush.failures").counter().count());
+        assertEquals(0, registry.get("urls.stats.rollups.written").counter().count());
+
+        //the retry writes both buckets kept by the failed flush
+        failing.shutdown();
+        assertEquals(2, registry.get("urls.stats.rollups.written").counter().count());
+    }
+
+    private static long total(List<ClickBucketDTO> series) {
+        return series.stream().mapToLong(ClickBucketDTO::getClicks).sum();
+    }
+}
@@ -0,0 +1,51 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.urlshortner.main.dto.HotShortCodeDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HotShortCodesTests {
+
+    //a few hot codes in a long tail of one-off clicks: the hot ones come out on top, in order, with
+    //estimates that never undercount; memory is the same sketch + 50 candidates however long the tail
+    @Test
+    void findsHeavyHittersInALongTail() {
+        HotShortCodes hot = new HotShortCodes(true, 4, 2048, 50, 3600, new SimpleMeterRegistry());
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            hot.record("tail" + random.nextInt(100_000));
+            if (i % 20 == 0) {
+                hot.record("hotA");
+            }
+            if (i % 40 == 0) {
+                hot.record("hotB");
+            }
+            if (i % 80 == 0) {
+                hot.record("hotC");
+            }
+        }
+        List<HotShortCodeDTO> top = hot.top(3);
+        assertEquals(List.of("hotA", "hotB", "hotC"), top.stream().map(HotShortCodeDTO::getShortCode).toList());
+        assertTrue(top.get(0).getEstimatedClicks() >= 10_000);
+        hot.shutdown();
+    }
+
+    @Test
+    void decayHalvesEstimates() {
+        HotShortCodes hot = new HotShortCodes(true, 4, 2048, 10, 3600, new SimpleMeterRegistry());
+        for (int i = 0; i < 1000; i++) {
+            hot.record("abc");
+        }
+        hot.decay();
+        assertEquals(500, hot.estimate("abc"));
+        hot.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "urls.codes.block-size=100")
+class ShortCodeAllocatorTests {
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 2_000;
+
+    @Autowired
+    private ShortCodeAllocator allocator;
+
+    @Test
+    void scrambleIsABijectionOnConsecutiveNumbers() {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        for (long number = 0; number < 100_000; number++) {
+            assertTrue(seen.add(ShortCodeAllocator.scramble(number)));
+        }
+        assertTrue(allocator.encode((1L << 41) - 1).length() <= 7);
+    }
+
+    @Test
+    void decodeReversesEncode() {
+        for (long number : new long[] {0, 1, 61, 62, 123_456_789, (1L << 41) - 1}) {
+            assertEquals(number, ShortCodeAllocator.unscramble(ShortCodeAllocator.scramble(number)));
+            assertEquals(number, allocator.decode(allocator.encode(number)));
+        }
+        assertEquals(-1, allocator.decode("0" + allocator.encode(5)));
+        assertEquals(-1, allocator.decode("abc-"));
+        assertEquals(-1, allocator.decode("abcdefgh"));
+    }
+
+    //a bulk request larger than a block spans several leases
+    @Test
+    void nextCodesSpansBlocks() {
+        List<String> codes = allocator.nextCodes(250);
+        assertEquals(250, codes.size());
+        assertEquals(250, Set.copyOf(codes).size());
+    }
+
+    //many threads across many leased blocks, no duplicates and only base62 characters
+    @Test
+    void concurrentAllocationsAreUnique() throws Exception {
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                for (int i = 0; i < CODES_PER_THREAD; i++) {
+                    String code = allocator.nextCode();
+                    assertTrue(code.matches("[0-9A-Za-z]{1,7}"), code);
+                    codes.add(code);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+        assertEquals(THREADS * CODES_PER_THREAD, codes.size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.urlshortner.main.Entity.ShortCodeBlock;
+import com.urlshortner.main.Repo.ShortCodeBlockRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+//the background refresh is effectively off, the tests call refreshLeasedEnd themselves
+@SpringBootTest(properties = {"urls.bloom.expected-insertions=10000", "urls.bloom.false-positive-rate=0.01",
+        "urls.codes.block-size=1000", "urls.bloom.leased-end-margin-blocks=5",
+        "urls.bloom.leased-end-refresh-ms=3600000"})
+class ShortCodeBloomFilterTests {
+    private static final int CODES = 10_000;
+    private static final int PROBES = 100_000;
+
+    @Autowired
+    private ShortCodeBloomFilter bloomFilter;
+
+    @Autowired
+    private RedirectCache redirectCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShortCodeAllocator allocator;
+
+    @MockitoSpyBean
+    private ShortCodeBlockRepository blockRepository;
+
+    //a code from another node's block may exist without this node knowing it, so it must reach the database;
+    //codes from this node's blocks and from well beyond every leased block can be answered by the filter
+    @Test
+    void onlyCodesNoOtherNodeCanHaveCreatedAreRejected() {
+        String ownCode = allocator.nextCode();
+        long ownNumber = allocator.decode(ownCode);
+        assertFalse(bloomFilter.mightContain(allocator.encode(ownNumber + 1)));
+
+        //a lease taken by another node after this one's, seen by the next refresh
+        long otherId = leaseAsAnotherNode();
+        bloomFilter.refreshLeasedEnd();
+        assertTrue(bloomFilter.mightContain(allocator.encode(otherId * 1000 + 7)));
+        assertFalse(bloomFilter.mightContain(allocator.encode((otherId + 1 + 5) * 1000)));
+
+        //leases taken after the refresh are inside the margin
+        long laterId = leaseAsAnotherNode();
+        assertTrue(bloomFilter.mightContain(allocator.encode(laterId * 1000 + 7)));
+        assertTrue(bloomFilter.mightContain(allocator.encode((otherId + 1 + 4) * 1000)));
+    }
+
+    //the highest lease is only read by refreshLeasedEnd, never while answering a lookup
+    @Test
+    void missesIssueNoQuery() {
+        bloomFilter.refreshLeasedEnd();
+        long beyond = (blockRepository.findMaxId() + 1 + 5) * 1000;
+        clearInvocations(blockRepository);
+        //a few are filter false positives (the other tests fill it), those don't query either
+        int rejected = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!bloomFilter.mightContain(allocator.encode(beyond + i * 7919L))) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 950, "rejected " + rejected);
+        verify(blockRepository, never()).findMaxId();
+    }
+
+    //no false negatives, and the false positive rate stays near the configured one at the expected fill
+    @Test
+    void addedCodesAreFoundAndUnknownCodesMostlyRejected() {
+        for (int i = 0; i < CODES; i++) {
+            bloomFilter.add("known" + i);
+        }
+        for (int i = 0; i < CODES; i++) {
+            assertTrue(bloomFilter.mightContain("known" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (bloomFilter.mightContain("unknown" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / PROBES;
+        assertTrue(rate < 0.02, "false positive rate " + rate);
+    }
+
+    private long leaseAsAnotherNode() {
+        ShortCodeBlock lease = new ShortCodeBlock();
+        lease.setBlockSize(1000);
+        lease.setLeasedAt(Instant.now());
+        return blockRepository.save(lease).getId();
+    }
+
+    @Test
+    void unknownCodeIsRejectedBeforeTheDatabase() {
+        double rejectedBefore = meterRegistry.counter("urls.bloom.rejected").count();
+        assertNull(redirectCache.find("Zz9Zz9Zz9"));
+        assertTrue(meterRegistry.counter("urls.bloom.rejected").count() > rejectedBefore);
+    }
+}
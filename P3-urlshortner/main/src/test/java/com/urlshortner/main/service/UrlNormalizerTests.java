@@ -0,0 +1,30 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class UrlNormalizerTests {
+
+    @Test
+    void equivalentSpellingsNormalizeTheSame() {
+        String expected = "https://example.com/a/b?a=1&b=2&c";
+        assertEquals(expected, UrlNormalizer.normalize("HTTPS://Example.COM:443/a/b/?b=2&c&a=1"));
+        assertEquals(expected, UrlNormalizer.normalize("https://example.com/a/b?a=1&&b=2&c"));
+        assertEquals("http://example.com/", UrlNormalizer.normalize("http://example.com:80"));
+        assertEquals("http://example.com:8080/", UrlNormalizer.normalize("http://example.com:8080/"));
+        assertArrayEquals(UrlNormalizer.hash(UrlNormalizer.normalize("https://EXAMPLE.com")),
+                UrlNormalizer.hash(UrlNormalizer.normalize("https://example.com/")));
+    }
+
+    //path case, repeated-parameter order, encoding and fragments can change what the server returns
+    @Test
+    void meaningfulDifferencesAreKept() {
+        assertNotEquals(UrlNormalizer.normalize("https://example.com/A"), UrlNormalizer.normalize("https://example.com/a"));
+        assertEquals("https://example.com/?a=2&a=1&b=0", UrlNormalizer.normalize("https://example.com/?b=0&a=2&a=1"));
+        assertEquals("https://example.com/x%2Fy", UrlNormalizer.normalize("https://example.com/x%2Fy"));
+        assertEquals("https://example.com/page#top", UrlNormalizer.normalize("https://example.com/page#top"));
+    }
+}
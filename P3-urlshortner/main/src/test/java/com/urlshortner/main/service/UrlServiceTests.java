@@ -0,0 +1,144 @@
+package com.urlshortner.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.urlshortner.main.Entity.Url;
+import com.urlshortner.main.Entity.User;
+import com.urlshortner.main.Repo.UrlRepository;
+import com.urlshortner.main.Repo.UserRepository;
+import com.urlshortner.main.dto.ShortenRequestDTO;
+import com.urlshortner.main.dto.ShortenResponseDTO;
+
+@SpringBootTest
+class UrlServiceTests {
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    //the same url in another spelling returns the first code without an insert; other users get their own
+    @Test
+    void repeatedUrlReturnsExistingCode() {
+        AuthenticatedUser alice = owner("alice");
+        AuthenticatedUser bob = owner("bob");
+        ShortenResponseDTO first = urlService.shorten(request("https://Example.com/dedup?b=2&a=1"), alice);
+        long rows = urlRepository.count();
+
+        ShortenResponseDTO again = urlService.shorten(request("https://example.com:443/dedup/?a=1&b=2"), alice);
+        assertTrue(first.isCreated());
+        assertFalse(again.isCreated());
+        assertEquals(first.getShortCode(), again.getShortCode());
+        assertEquals(rows, urlRepository.count());
+
+        ShortenResponseDTO other = urlService.shorten(request("https://example.com/dedup?a=1&b=2"), bob);
+        assertTrue(other.isCreated());
+        assertNotEquals(first.getShortCode(), other.getShortCode());
+    }
+
+    @Test
+    void batchDeduplicatesAgainstExistingAndWithinTheRequest() {
+        AuthenticatedUser carol = owner("carol");
+        ShortenResponseDTO known = urlService.shorten(request("https://example.com/known"), carol);
+
+        List<ShortenResponseDTO> results = urlService.shortenBatch(List.of(
+                request("https://example.com/new"),
+                request("https://EXAMPLE.com/known/"),
+                request("https://example.com/new/")), carol);
+        assertTrue(results.get(0).isCreated());
+        assertEquals(known.getShortCode(), results.get(1).getShortCode());
+        assertFalse(results.get(1).isCreated());
+        assertEquals(results.get(0).getShortCode(), results.get(2).getShortCode());
+        assertFalse(results.get(2).isCreated());
+    }
+
+    @Test
+    void batchKeepsRequestOrderAndRejectsInvalidUrls() {
+        AuthenticatedUser frank = owner("frank");
+        List<ShortenRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            requests.add(request("https://example.com/order/" + i));
+        }
+        List<ShortenResponseDTO> results = urlService.shortenBatch(requests, frank);
+        assertEquals(120, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            ShortenResponseDTO result = results.get(i);
+            assertEquals("https://example.com/order/" + i, result.getOriginalUrl());
+            assertEquals(result.getOriginalUrl(),
+                    urlRepository.findByShortCode(result.getShortCode()).orElseThrow().getOriginalUrl());
+        }
+
+        //nothing is written when one url is bad
+        long before = urlRepository.count();
+        List<ShortenRequestDTO> withBadUrl = List.of(request("https://example.com/bad/0"),
+                request("ftp://example.com/file"), request("https://example.com/bad/2"));
+        assertThrows(InvalidUrlException.class, () -> urlService.shortenBatch(withBadUrl, frank));
+        assertEquals(before, urlRepository.count());
+    }
+
+    //the longest accepted url fits the column; one more character is a 400, not a failed insert
+    @Test
+    void overLongUrlIsRejected() {
+        AuthenticatedUser dave = owner("dave");
+        String prefix = "https://example.com/";
+        String longest = prefix + "a".repeat(UrlService.MAX_URL_LENGTH - prefix.length());
+        assertTrue(urlService.shorten(request(longest), dave).isCreated());
+        assertThrows(InvalidUrlException.class, () -> urlService.shorten(request(longest + "a"), dave));
+        assertThrows(InvalidUrlException.class, () -> urlService.shortenBatch(List.of(request(longest + "a")), dave));
+    }
+
+    //only a (user_id, url_hash) violation counts as a concurrent duplicate, a short_code one doesn't
+    @Test
+    void onlyTheUrlHashIndexIsTreatedAsDuplicate() {
+        AuthenticatedUser erin = owner("erin");
+        ShortenResponseDTO first = urlService.shorten(request("https://example.com/race"), erin);
+        Url sameHash = url("raceCopy1", erin, urlRepository.findById(first.getId()).orElseThrow().getUrlHash());
+        DataIntegrityViolationException hashViolation =
+                assertThrows(DataIntegrityViolationException.class, () -> urlRepository.save(sameHash));
+        assertTrue(UrlService.isUrlHashViolation(hashViolation));
+
+        Url sameCode = url(first.getShortCode(), erin, null);
+        DataIntegrityViolationException codeViolation =
+                assertThrows(DataIntegrityViolationException.class, () -> urlRepository.save(sameCode));
+        assertFalse(UrlService.isUrlHashViolation(codeViolation));
+    }
+
+    private Url url(String shortCode, AuthenticatedUser owner, byte[] urlHash) {
+        Url url = new Url();
+        url.setShortCode(shortCode);
+        url.setOriginalUrl("https://example.com/copy");
+        url.setUrlHash(urlHash);
+        url.setUser(userRepository.getReferenceById(owner.getId()));
+        return url;
+    }
+
+    private AuthenticatedUser owner(String name) {
+        User user = new User();
+        user.setUsername(name + "-" + System.nanoTime());
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), List.of());
+    }
+
+    private static ShortenRequestDTO request(String originalUrl) {
+        ShortenRequestDTO request = new ShortenRequestDTO();
+        request.setOriginalUrl(originalUrl);
+        return request;
+    }
+}